@@ -0,0 +1,50 @@
+package io.navigation.benchmarks;
+
+import io.navigation.NetworkCoverage;
+import io.navigation.NetworkGraph;
+import io.navigation.Point;
+
+import java.util.List;
+
+/**
+ * A network produced by the {@link NetworkGenerator}, along with the locations of its stations and stops.
+ * <p>
+ * Station and stop locations are listed in the iteration order of the network graph.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class GeneratedNetwork {
+    private final NetworkGraph networkGraph;
+    private final NetworkCoverage<Point> networkCoverage;
+    private final List<Point> stationLocations;
+    private final List<Point> stopLocations;
+
+    GeneratedNetwork(NetworkGraph networkGraph, NetworkCoverage<Point> networkCoverage, List<Point> stationLocations, List<Point> stopLocations) {
+        this.networkGraph = networkGraph;
+        this.networkCoverage = networkCoverage;
+        this.stationLocations = stationLocations;
+        this.stopLocations = stopLocations;
+    }
+
+    public NetworkGraph getNetworkGraph() {
+        return networkGraph;
+    }
+
+    public NetworkCoverage<Point> getNetworkCoverage() {
+        return networkCoverage;
+    }
+
+    public List<Point> getStationLocations() {
+        return stationLocations;
+    }
+
+    public List<Point> getStopLocations() {
+        return stopLocations;
+    }
+
+    @Override
+    public String toString() {
+        return "GeneratedNetwork{stations=" + stationLocations.size() + ", stops=" + stopLocations.size() + "}";
+    }
+}
@@ -0,0 +1,272 @@
+package io.navigation.benchmarks;
+
+import com.google.gson.GsonBuilder;
+import io.navigation.NavigationNetwork;
+import io.navigation.NetworkInfo;
+import io.navigation.Point;
+import io.navigation.RouteFinderFactory;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Replays {@link NavigationNetwork#findPreferredRoute(Object, Object)} queries against a generated network at a fixed
+ * arrival rate, reporting latency percentiles and sustained throughput as JSON.
+ * <p>
+ * The driver is open-loop: query {@code i} is scheduled to arrive {@code i / rate} seconds into the run whether or not
+ * earlier queries have completed, and worker threads pick up queries in arrival order. Latency is measured from the
+ * scheduled arrival of each query rather than from when a worker started it, so time spent queued behind slow queries
+ * is counted (correcting for coordinated omission). The time spent executing each query is reported separately as
+ * the service time.
+ * <p>
+ * Queries are either synthetic (coordinates near random stations and stops of the network) or replayed from a file
+ * with one {@code startX,startY,destinationX,destinationY} query per line, cycling through the file as needed.
+ * <p>
+ * Options are passed as {@code --name=value}:
+ * <ul>
+ * <li>{@code topology}, {@code stations}, {@code connections}, {@code stops}, {@code seed}: the generated network
+ * (defaults {@code GEOMETRIC}, {@code 10000}, {@code 3}, {@code 1}, {@code 42})</li>
+ * <li>{@code route-finder}: the route finder factory, as named by {@link RouteFinderBenchmark} (default
+ * {@code dijkstra})</li>
+ * <li>{@code cache-ttl-seconds}, {@code cache-size}: the expiry and capacity of the {@code cached} route finder
+ * (defaults {@code 3600}, {@code 10000})</li>
+ * <li>{@code network-finder}: the network finder factory, as named by {@link NetworkFinderBenchmark} (default
+ * {@code indexed})</li>
+ * <li>{@code queries}: a file of queries to replay instead of synthetic queries</li>
+ * <li>{@code rate}, {@code threads}: the arrival rate in queries per second, and the number of worker threads
+ * (defaults {@code 1000}, {@code 4})</li>
+ * <li>{@code warmup-seconds}, {@code duration-seconds}: how long to run before and while recording (defaults
+ * {@code 10}, {@code 60})</li>
+ * <li>{@code output}: the file to write results to (default standard output)</li>
+ * </ul>
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class LoadDriver {
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    private final Map<String, String> options;
+    private final NavigationNetwork<Point> navigationNetwork;
+    private final List<Point[]> queries;
+
+    private LoadDriver(Map<String, String> options) {
+        this.options = options;
+        GeneratedNetwork network = NetworkGenerator.generate(
+                NetworkGenerator.Topology.valueOf(option("topology", "GEOMETRIC")),
+                Integer.parseInt(option("stations", "10000")),
+                Integer.parseInt(option("connections", "3")),
+                Integer.parseInt(option("stops", "1")),
+                Long.parseLong(option("seed", "42")));
+        this.navigationNetwork = NavigationNetwork.<Point>builder()
+                .setNetworkInfo(NetworkInfo.of("load-test", 1, Instant.now()))
+                .setNetworkCoverage(network.getNetworkCoverage())
+                .setNetworkGraph(network.getNetworkGraph())
+                .setNetworkFinderFactory(NetworkFinderBenchmark.networkFinderFactory(option("network-finder", "indexed")))
+                .setRouteFinderFactory(routeFinderFactory())
+                .build()
+                .warmUp();
+        this.queries = options.containsKey("queries")
+                ? readQueries(Paths.get(options.get("queries")))
+                : generateQueries(network, Long.parseLong(option("seed", "42")));
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unable to parse option " + arg + ", expected --name=value.");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    private void run() {
+        double rate = Double.parseDouble(option("rate", "1000"));
+        int threads = Integer.parseInt(option("threads", "4"));
+        long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup-seconds", "10")));
+        long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration-seconds", "60")));
+        if (warmup > 0) {
+            drive(rate, threads, warmup);
+        }
+        Run run = drive(rate, threads, duration);
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("options", options);
+        results.put("rate", rate);
+        results.put("threads", threads);
+        results.put("durationSeconds", run.elapsed / 1e9);
+        results.put("scheduled", run.scheduled);
+        results.put("completed", run.latency.getTotalCount());
+        results.put("failed", run.failed);
+        results.put("throughput", run.latency.getTotalCount() / (run.elapsed / 1e9));
+        results.put("latencyMicros", summarize(run.latency));
+        results.put("serviceTimeMicros", summarize(run.serviceTime));
+        try (Writer writer = options.containsKey("output")
+                ? Files.newBufferedWriter(Paths.get(options.get("output")), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(results, writer);
+            writer.write(System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write load test results.", e);
+        }
+    }
+
+    /**
+     * Schedules queries at the arrival rate for the duration, then waits for the scheduled queries to complete.
+     */
+    private Run drive(double rate, int threads, long duration) {
+        long interval = Math.max(1, (long) (1e9 / rate));
+        long scheduled = duration / interval;
+        AtomicLong next = new AtomicLong();
+        Run run = new Run(scheduled);
+        List<Thread> workers = new ArrayList<>(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; ++i) {
+            Thread worker = new Thread(() -> {
+                Histogram latency = new Histogram(3);
+                Histogram serviceTime = new Histogram(3);
+                long failed = 0;
+                for (long query = next.getAndIncrement(); query < scheduled; query = next.getAndIncrement()) {
+                    long arrival = start + query * interval;
+                    for (long now = System.nanoTime(); now < arrival; now = System.nanoTime()) {
+                        LockSupport.parkNanos(arrival - now);
+                    }
+                    long started = System.nanoTime();
+                    Point[] coordinates = queries.get((int) (query % queries.size()));
+                    try {
+                        navigationNetwork.findPreferredRoute(coordinates[0], coordinates[1]);
+                    } catch (RuntimeException e) {
+                        //queries from or to uncovered coordinates are still timed, but counted separately
+                        ++failed;
+                    }
+                    long completed = System.nanoTime();
+                    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(completed - arrival));
+                    serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(completed - started));
+                }
+                run.add(latency, serviceTime, failed);
+            }, "load-driver-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the load test to complete.", e);
+            }
+        }
+        run.elapsed = System.nanoTime() - start;
+        return run;
+    }
+
+    private RouteFinderFactory routeFinderFactory() {
+        String name = option("route-finder", "dijkstra");
+        if (!name.equals("cached")) {
+            return RouteFinderBenchmark.routeFinderFactory(name);
+        }
+        return RouteFinderFactory.cached(RouteFinderFactory.dijkstra(),
+                Long.parseLong(option("cache-ttl-seconds", "3600")), TimeUnit.SECONDS,
+                Long.parseLong(option("cache-size", "10000")));
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static List<Point[]> generateQueries(GeneratedNetwork network, long seed) {
+        List<Point> stationLocations = network.getStationLocations();
+        List<Point> stopLocations = network.getStopLocations();
+        Random random = new Random(seed);
+        List<Point[]> queries = new ArrayList<>();
+        for (int i = 0; i < 100_000; ++i) {
+            queries.add(new Point[]{
+                    near(stationLocations.get(random.nextInt(stationLocations.size())), random),
+                    near(stopLocations.get(random.nextInt(stopLocations.size())), random)
+            });
+        }
+        return queries;
+    }
+
+    private static Point near(Point location, Random random) {
+        return Point.of(location.getX() + (random.nextDouble() - 0.5) * NetworkGenerator.SPACING,
+                location.getY() + (random.nextDouble() - 0.5) * NetworkGenerator.SPACING);
+    }
+
+    private static List<Point[]> readQueries(Path file) {
+        try {
+            List<Point[]> queries = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(line -> {
+                        String[] values = line.split(",");
+                        if (values.length != 4) {
+                            throw new IllegalArgumentException("Unable to parse query " + line + ", expected startX,startY,destinationX,destinationY.");
+                        }
+                        return new Point[]{
+                                Point.of(Double.parseDouble(values[0].trim()), Double.parseDouble(values[1].trim())),
+                                Point.of(Double.parseDouble(values[2].trim()), Double.parseDouble(values[3].trim()))
+                        };
+                    })
+                    .collect(Collectors.toList());
+            if (queries.isEmpty()) {
+                throw new IllegalArgumentException("Unable to replay queries from " + file + " as it has none.");
+            }
+            return queries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read queries from " + file + ".", e);
+        }
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; ++i) {
+            summary.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+        }
+        summary.put("max", histogram.getMaxValue());
+        summary.put("mean", histogram.getMean());
+        return summary;
+    }
+
+    /**
+     * The histograms and counts of a single run, merged from every worker thread.
+     */
+    private static final class Run {
+        private final long scheduled;
+        private final Histogram latency = new Histogram(3);
+        private final Histogram serviceTime = new Histogram(3);
+        private long failed;
+        private long elapsed;
+
+        private Run(long scheduled) {
+            this.scheduled = scheduled;
+        }
+
+        private synchronized void add(Histogram latency, Histogram serviceTime, long failed) {
+            this.latency.add(latency);
+            this.serviceTime.add(serviceTime);
+            this.failed += failed;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.navigation.benchmarks;
+
+import io.navigation.NavigationNetwork;
+import io.navigation.NetworkFinder;
+import io.navigation.NetworkFinderFactory;
+import io.navigation.NetworkInfo;
+import io.navigation.Point;
+import io.navigation.RouteFinderFactory;
+import io.navigation.Station;
+import io.navigation.Stop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures station and stop lookups by every {@link NetworkFinderFactory} over generated networks.
+ * <p>
+ * Coordinates are drawn near random stations and stops, so most lookups find at least one available station or stop.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkFinderBenchmark {
+    @Param({"findAny", "findFirst", "indexed", "cached"})
+    public String networkFinderFactory;
+
+    private NetworkFinder<Point> networkFinder;
+    private Point[] coordinates;
+
+    @Setup
+    public void setUp(NetworkState networkState) {
+        GeneratedNetwork network = networkState.getNetwork();
+        NavigationNetwork<Point> navigationNetwork = NavigationNetwork.<Point>builder()
+                .setNetworkInfo(NetworkInfo.of("benchmark", 1, Instant.now()))
+                .setNetworkCoverage(network.getNetworkCoverage())
+                .setNetworkGraph(network.getNetworkGraph())
+                .setNetworkFinderFactory(networkFinderFactory(networkFinderFactory))
+                .setRouteFinderFactory(RouteFinderFactory.direct())
+                .build();
+        networkFinder = navigationNetwork.getNetworkFinder();
+        List<Point> stationLocations = network.getStationLocations();
+        List<Point> stopLocations = network.getStopLocations();
+        Random random = new Random(7);
+        coordinates = new Point[QueryCursor.QUERY_COUNT];
+        for (int i = 0; i < QueryCursor.QUERY_COUNT; ++i) {
+            List<Point> locations = i % 2 == 0 ? stationLocations : stopLocations;
+            Point location = locations.get(random.nextInt(locations.size()));
+            coordinates[i] = Point.of(location.getX() + (random.nextDouble() - 0.5) * NetworkGenerator.SPACING,
+                    location.getY() + (random.nextDouble() - 0.5) * NetworkGenerator.SPACING);
+        }
+    }
+
+    @Benchmark
+    public Optional<Station> findPreferredStation(QueryCursor cursor) {
+        return networkFinder.findPreferredStation(coordinates[cursor.next()]);
+    }
+
+    @Benchmark
+    public Optional<Stop> findPreferredStop(QueryCursor cursor) {
+        return networkFinder.findPreferredStop(coordinates[cursor.next()]);
+    }
+
+    @Benchmark
+    public long findAvailableStops(QueryCursor cursor) {
+        return networkFinder.findAvailableStops(coordinates[cursor.next()]).count();
+    }
+
+    static NetworkFinderFactory<Point> networkFinderFactory(String name) {
+        switch (name) {
+            case "findAny":
+                return NetworkFinderFactory.findAny();
+            case "findFirst":
+                return NetworkFinderFactory.findFirst();
+            case "indexed":
+                return NetworkFinderFactory.indexed();
+            case "cached":
+                return NetworkFinderFactory.cached(NetworkGenerator.SPACING);
+            default:
+                throw new IllegalArgumentException("Unsupported network finder factory " + name + ".");
+        }
+    }
+}
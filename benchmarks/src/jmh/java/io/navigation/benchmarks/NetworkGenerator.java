@@ -0,0 +1,380 @@
+package io.navigation.benchmarks;
+
+import io.navigation.NetworkCoverage;
+import io.navigation.NetworkGraph;
+import io.navigation.Point;
+import io.navigation.RouteOption;
+import io.navigation.ServiceArea;
+import io.navigation.Station;
+import io.navigation.Stop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic transit networks of a configurable size for benchmarking.
+ * <p>
+ * Stations are laid out so that the average spacing between neighboring stations is {@link #SPACING} regardless of
+ * the network size, and every connection is bidirectional with a fare proportional to the distance it covers. Each
+ * station services its own stops (placed around it) along with those of the first station it connects to, and
+ * stations and stops are covered by circular service areas overlapping those of their neighbors.
+ * <p>
+ * Generation is deterministic for a given seed.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class NetworkGenerator {
+    /**
+     * The average distance between neighboring stations.
+     */
+    public static final double SPACING = 10.0;
+
+    private final Topology topology;
+    private final int stationCount;
+    private final int connectionsPerStation;
+    private final int stopsPerStation;
+    private final Random random;
+    private final Point[] stations;
+    private final List<Set<Integer>> connections;
+
+    private NetworkGenerator(Topology topology, int stationCount, int connectionsPerStation, int stopsPerStation, long seed) {
+        if (stationCount < 2) {
+            throw new IllegalArgumentException("Unable to generate a network with fewer than 2 stations.");
+        }
+        if (connectionsPerStation < 1 || stopsPerStation < 1) {
+            throw new IllegalArgumentException("Unable to generate a network without connections or stops.");
+        }
+        this.topology = topology;
+        this.stationCount = stationCount;
+        this.connectionsPerStation = connectionsPerStation;
+        this.stopsPerStation = stopsPerStation;
+        this.random = new Random(seed);
+        this.stations = new Point[stationCount];
+        this.connections = new ArrayList<>(stationCount);
+        for (int station = 0; station < stationCount; ++station) {
+            connections.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Generates a network.
+     *
+     * @param topology              the layout of the stations and their connections
+     * @param stationCount          the number of stations
+     * @param connectionsPerStation the number of connections each station makes, where stations may end up with more
+     *                              as connections made to them are returned
+     * @param stopsPerStation       the number of stops placed around each station
+     * @param seed                  the random seed
+     * @return the generated network
+     */
+    public static GeneratedNetwork generate(Topology topology, int stationCount, int connectionsPerStation, int stopsPerStation, long seed) {
+        return new NetworkGenerator(topology, stationCount, connectionsPerStation, stopsPerStation, seed).generate();
+    }
+
+    private GeneratedNetwork generate() {
+        switch (topology) {
+            case GRID:
+                grid();
+                break;
+            case GEOMETRIC:
+                geometric();
+                break;
+            case SCALE_FREE:
+                scaleFree();
+                break;
+            case HUB_AND_SPOKE:
+                hubAndSpoke();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported topology " + topology + ".");
+        }
+        return build();
+    }
+
+    /**
+     * Places stations on a square lattice, connecting each to its nearest lattice neighbors (right, down, left, up,
+     * then the diagonals).
+     */
+    private void grid() {
+        int side = (int) Math.ceil(Math.sqrt(stationCount));
+        int[][] offsets = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}};
+        for (int station = 0; station < stationCount; ++station) {
+            stations[station] = Point.of((station % side) * SPACING, (station / side) * SPACING);
+        }
+        for (int station = 0; station < stationCount; ++station) {
+            int x = station % side;
+            int y = station / side;
+            for (int i = 0, connected = 0; i < offsets.length && connected < connectionsPerStation; ++i) {
+                int neighborX = x + offsets[i][0];
+                int neighborY = y + offsets[i][1];
+                int neighbor = neighborY * side + neighborX;
+                if (neighborX >= 0 && neighborX < side && neighborY >= 0 && neighbor < stationCount) {
+                    connect(station, neighbor);
+                    ++connected;
+                }
+            }
+        }
+    }
+
+    /**
+     * Places stations uniformly at random, connecting each to its nearest stations.
+     */
+    private void geometric() {
+        scatter();
+        NearestStations nearestStations = new NearestStations(stations);
+        for (int station = 0; station < stationCount; ++station) {
+            for (int neighbor : nearestStations.find(station, connectionsPerStation)) {
+                connect(station, neighbor);
+            }
+        }
+    }
+
+    /**
+     * Places stations uniformly at random, connecting each new station to existing stations with a probability
+     * proportional to the number of connections they already have (preferential attachment), which produces a few
+     * very well connected stations.
+     */
+    private void scaleFree() {
+        scatter();
+        //every connection adds both of its stations, so sampling it picks stations by their number of connections
+        int[] endpoints = new int[2 * stationCount * connectionsPerStation + 2];
+        int endpointCount = 0;
+        connect(0, 1);
+        endpoints[endpointCount++] = 0;
+        endpoints[endpointCount++] = 1;
+        for (int station = 2; station < stationCount; ++station) {
+            int targets = Math.min(connectionsPerStation, station);
+            //only sample the connections made before this station, so it can never pick itself
+            int existingEndpoints = endpointCount;
+            for (int attempt = 0; connections.get(station).size() < targets && attempt < targets * 4; ++attempt) {
+                int target = endpoints[random.nextInt(existingEndpoints)];
+                if (connections.get(station).contains(target)) {
+                    continue;
+                }
+                if (endpointCount + 2 > endpoints.length) {
+                    throw new IllegalStateException("Unable to record more than " + endpoints.length + " connection endpoints.");
+                }
+                connect(station, target);
+                endpoints[endpointCount++] = station;
+                endpoints[endpointCount++] = target;
+            }
+        }
+    }
+
+    /**
+     * Groups stations around hubs, which are connected to their nearest hubs and to every station in their group.
+     * Stations within a group are chained together in the order they were placed.
+     */
+    private void hubAndSpoke() {
+        scatter();
+        int hubCount = Math.max(2, stationCount / 50);
+        Point[] hubs = Arrays.copyOf(stations, hubCount);
+        NearestStations nearestHubs = new NearestStations(hubs);
+        for (int hub = 0; hub < hubCount; ++hub) {
+            for (int neighbor : nearestHubs.find(hub, connectionsPerStation)) {
+                connect(hub, neighbor);
+            }
+            //a ring through every hub keeps the network connected
+            connect(hub, (hub + 1) % hubCount);
+        }
+        int[] previousSpoke = new int[hubCount];
+        Arrays.fill(previousSpoke, -1);
+        for (int station = hubCount; station < stationCount; ++station) {
+            int hub = nearestHubs.find(stations[station], 1)[0];
+            connect(station, hub);
+            if (previousSpoke[hub] >= 0 && connectionsPerStation > 1) {
+                connect(station, previousSpoke[hub]);
+            }
+            previousSpoke[hub] = station;
+        }
+    }
+
+    private void scatter() {
+        double side = Math.sqrt(stationCount) * SPACING;
+        for (int station = 0; station < stationCount; ++station) {
+            stations[station] = Point.of(random.nextDouble() * side, random.nextDouble() * side);
+        }
+    }
+
+    private void connect(int station, int neighbor) {
+        if (station != neighbor) {
+            connections.get(station).add(neighbor);
+            connections.get(neighbor).add(station);
+        }
+    }
+
+    private GeneratedNetwork build() {
+        NetworkGraph.Builder networkGraph = NetworkGraph.builder();
+        NetworkCoverage.Builder<Point> networkCoverage = NetworkCoverage.builder();
+        Point[] stops = new Point[stationCount * stopsPerStation];
+        for (int station = 0; station < stationCount; ++station) {
+            for (int i = 0; i < stopsPerStation; ++i) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double distance = random.nextDouble() * SPACING / 2;
+                Point stop = Point.of(stations[station].getX() + Math.cos(angle) * distance, stations[station].getY() + Math.sin(angle) * distance);
+                stops[station * stopsPerStation + i] = stop;
+                networkGraph.addStop(Stop.of(stopId(station * stopsPerStation + i)));
+                networkCoverage.putStopServiceArea(stopId(station * stopsPerStation + i), ServiceArea.circle(stop, SPACING));
+            }
+        }
+        for (int station = 0; station < stationCount; ++station) {
+            List<RouteOption> stationConnections = new ArrayList<>();
+            for (int neighbor : connections.get(station)) {
+                stationConnections.add(RouteOption.of(stationId(station) + "-" + stationId(neighbor), stationId(neighbor), fare(stations[station], stations[neighbor])));
+            }
+            List<RouteOption> destinations = new ArrayList<>();
+            addDestinations(destinations, station, station, stops);
+            if (!connections.get(station).isEmpty()) {
+                addDestinations(destinations, station, connections.get(station).iterator().next(), stops);
+            }
+            networkGraph.addStation(Station.of(stationId(station), stationConnections, destinations));
+            networkCoverage.putStationServiceArea(stationId(station), ServiceArea.circle(stations[station], SPACING * 1.5));
+        }
+        return new GeneratedNetwork(networkGraph.build(), networkCoverage.build(), Arrays.asList(stations), Arrays.asList(stops));
+    }
+
+    private void addDestinations(List<RouteOption> destinations, int station, int servicedStation, Point[] stops) {
+        for (int i = 0; i < stopsPerStation; ++i) {
+            int stop = servicedStation * stopsPerStation + i;
+            destinations.add(RouteOption.of(stationId(station) + "-" + stopId(stop), stopId(stop), fare(stations[station], stops[stop])));
+        }
+    }
+
+    /**
+     * Prices a leg by its distance, with some noise so that the shortest and cheapest routes differ.
+     */
+    private double fare(Point from, Point to) {
+        double distance = Math.hypot(to.getX() - from.getX(), to.getY() - from.getY());
+        return 1 + distance * (1 + random.nextDouble() / 2);
+    }
+
+    static String stationId(int station) {
+        return "station-" + station;
+    }
+
+    static String stopId(int stop) {
+        return "stop-" + stop;
+    }
+
+    /**
+     * The layout of the stations of a generated network, and how they connect to each other.
+     */
+    public enum Topology {
+        GRID,
+        GEOMETRIC,
+        SCALE_FREE,
+        HUB_AND_SPOKE
+    }
+
+    /**
+     * Finds the nearest points to a location by searching the cells of a uniform grid in rings around it.
+     */
+    private static final class NearestStations {
+        private final Point[] points;
+        private final double cellSize;
+        private final double minimumX;
+        private final double minimumY;
+        private final int columns;
+        private final int rows;
+        private final int[][] cells;
+
+        private NearestStations(Point[] points) {
+            this.points = points;
+            double minimumX = Double.POSITIVE_INFINITY;
+            double minimumY = Double.POSITIVE_INFINITY;
+            double maximumX = Double.NEGATIVE_INFINITY;
+            double maximumY = Double.NEGATIVE_INFINITY;
+            for (Point point : points) {
+                minimumX = Math.min(minimumX, point.getX());
+                minimumY = Math.min(minimumY, point.getY());
+                maximumX = Math.max(maximumX, point.getX());
+                maximumY = Math.max(maximumY, point.getY());
+            }
+            //roughly one point per cell
+            this.cellSize = Math.max(Math.sqrt((maximumX - minimumX) * (maximumY - minimumY) / points.length), 1e-9);
+            this.minimumX = minimumX;
+            this.minimumY = minimumY;
+            this.columns = (int) ((maximumX - minimumX) / cellSize) + 1;
+            this.rows = (int) ((maximumY - minimumY) / cellSize) + 1;
+            int[] counts = new int[columns * rows];
+            for (Point point : points) {
+                ++counts[cell(point)];
+            }
+            this.cells = new int[columns * rows][];
+            for (int cell = 0; cell < cells.length; ++cell) {
+                cells[cell] = new int[counts[cell]];
+            }
+            for (int i = 0; i < points.length; ++i) {
+                int cell = cell(points[i]);
+                cells[cell][--counts[cell]] = i;
+            }
+        }
+
+        private int[] find(int point, int count) {
+            int[] nearest = find(points[point], count + 1);
+            int[] excluding = new int[Math.min(count, nearest.length)];
+            for (int i = 0, j = 0; i < nearest.length && j < excluding.length; ++i) {
+                if (nearest[i] != point) {
+                    excluding[j++] = nearest[i];
+                }
+            }
+            return excluding;
+        }
+
+        private int[] find(Point location, int count) {
+            count = Math.min(count, points.length);
+            int[] nearest = new int[count];
+            double[] distances = new double[count];
+            int found = 0;
+            int column = column(location);
+            int row = row(location);
+            for (int ring = 0; ; ++ring) {
+                //every point outside of the searched rings is at least this far away
+                if (found == count && distances[count - 1] <= (ring - 1) * cellSize) {
+                    break;
+                }
+                if (ring > columns + rows) {
+                    break;
+                }
+                for (int y = row - ring; y <= row + ring; ++y) {
+                    for (int x = column - ring; x <= column + ring; ++x) {
+                        if (Math.max(Math.abs(x - column), Math.abs(y - row)) != ring || x < 0 || y < 0 || x >= columns || y >= rows) {
+                            continue;
+                        }
+                        for (int candidate : cells[y * columns + x]) {
+                            double distance = Math.hypot(points[candidate].getX() - location.getX(), points[candidate].getY() - location.getY());
+                            if (found < count || distance < distances[count - 1]) {
+                                int i = found < count ? found++ : count - 1;
+                                while (i > 0 && distances[i - 1] > distance) {
+                                    distances[i] = distances[i - 1];
+                                    nearest[i] = nearest[i - 1];
+                                    --i;
+                                }
+                                distances[i] = distance;
+                                nearest[i] = candidate;
+                            }
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(nearest, found);
+        }
+
+        private int cell(Point point) {
+            return row(point) * columns + column(point);
+        }
+
+        private int column(Point point) {
+            return Math.max(0, Math.min(columns - 1, (int) ((point.getX() - minimumX) / cellSize)));
+        }
+
+        private int row(Point point) {
+            return Math.max(0, Math.min(rows - 1, (int) ((point.getY() - minimumY) / cellSize)));
+        }
+    }
+}
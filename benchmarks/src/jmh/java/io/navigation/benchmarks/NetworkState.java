@@ -0,0 +1,38 @@
+package io.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The generated network shared by every thread of a benchmark trial.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+public class NetworkState {
+    @Param({"GRID", "GEOMETRIC", "SCALE_FREE", "HUB_AND_SPOKE"})
+    public NetworkGenerator.Topology topology;
+
+    @Param({"1000", "4000"})
+    public int stations;
+
+    @Param("3")
+    public int connectionsPerStation;
+
+    @Param("1")
+    public int stopsPerStation;
+
+    private GeneratedNetwork network;
+
+    @Setup
+    public void generate() {
+        network = NetworkGenerator.generate(topology, stations, connectionsPerStation, stopsPerStation, 42);
+    }
+
+    public GeneratedNetwork getNetwork() {
+        return network;
+    }
+}
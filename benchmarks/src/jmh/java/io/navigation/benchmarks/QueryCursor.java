@@ -0,0 +1,25 @@
+package io.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Walks each thread through the pregenerated queries of a benchmark, so consecutive invocations look up different
+ * stations and stops.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@State(Scope.Thread)
+public class QueryCursor {
+    /**
+     * The number of pregenerated queries, which must be a power of two.
+     */
+    public static final int QUERY_COUNT = 1024;
+
+    private int next;
+
+    public int next() {
+        return next++ & (QUERY_COUNT - 1);
+    }
+}
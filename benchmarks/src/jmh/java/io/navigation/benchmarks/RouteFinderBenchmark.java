@@ -0,0 +1,113 @@
+package io.navigation.benchmarks;
+
+import io.navigation.Route;
+import io.navigation.RouteFinder;
+import io.navigation.RouteFinderFactory;
+import io.navigation.Station;
+import io.navigation.Stop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures route lookups by every {@link RouteFinderFactory} over generated networks.
+ * <p>
+ * Queries are drawn from a fixed set of random station and stop pairs, so the {@code cached} route finder serves
+ * most of them from its cache once warmed up, as it would for a skewed production workload.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteFinderBenchmark {
+    private static final int STOPS_PER_QUERY = 16;
+
+    @Param({"direct", "dijkstra", "allPairs", "contractionHierarchy", "landmarks", "cached", "minimumFare", "quickSelect", "hedged", "firstOption"})
+    public String routeFinderFactory;
+
+    private RouteFinder routeFinder;
+    private Station[] stations;
+    private Stop[] stops;
+    private List<Set<Stop>> stopSets;
+
+    @Setup
+    public void setUp(NetworkState networkState) {
+        GeneratedNetwork network = networkState.getNetwork();
+        routeFinder = routeFinderFactory(routeFinderFactory).create(network.getNetworkGraph());
+        List<Station> allStations = new ArrayList<>(network.getNetworkGraph().getStations());
+        List<Stop> allStops = new ArrayList<>(network.getNetworkGraph().getStops());
+        Random random = new Random(7);
+        stations = new Station[QueryCursor.QUERY_COUNT];
+        stops = new Stop[QueryCursor.QUERY_COUNT];
+        stopSets = new ArrayList<>(QueryCursor.QUERY_COUNT);
+        for (int i = 0; i < QueryCursor.QUERY_COUNT; ++i) {
+            stations[i] = allStations.get(random.nextInt(allStations.size()));
+            stops[i] = allStops.get(random.nextInt(allStops.size()));
+            Set<Stop> stopSet = new HashSet<>();
+            while (stopSet.size() < Math.min(STOPS_PER_QUERY, allStops.size())) {
+                stopSet.add(allStops.get(random.nextInt(allStops.size())));
+            }
+            stopSets.add(stopSet);
+        }
+    }
+
+    @Benchmark
+    public Optional<Route> findRoute(QueryCursor cursor) {
+        int query = cursor.next();
+        return routeFinder.findRoute(stations[query], stops[query]);
+    }
+
+    @Benchmark
+    public long findRoutes(QueryCursor cursor) {
+        int query = cursor.next();
+        return routeFinder.findRoutes(stations[query], stopSets.get(query)).count();
+    }
+
+    static RouteFinderFactory routeFinderFactory(String name) {
+        switch (name) {
+            case "direct":
+                return RouteFinderFactory.direct();
+            case "dijkstra":
+                return RouteFinderFactory.dijkstra();
+            case "allPairs":
+                return RouteFinderFactory.allPairs();
+            case "contractionHierarchy":
+                return RouteFinderFactory.contractionHierarchy();
+            case "landmarks":
+                return RouteFinderFactory.landmarks();
+            case "cached":
+                return RouteFinderFactory.cached(RouteFinderFactory.dijkstra(), 1, TimeUnit.HOURS);
+            case "minimumFare":
+                return RouteFinderFactory.minimumFare(RouteFinderFactory.dijkstra(), RouteFinderFactory.landmarks());
+            case "quickSelect":
+                return RouteFinderFactory.quickSelect(RouteFinderFactory.dijkstra(), RouteFinderFactory.landmarks());
+            case "hedged":
+                return RouteFinderFactory.hedged(RouteFinderFactory.landmarks(), RouteFinderFactory.dijkstra());
+            case "firstOption":
+                return RouteFinderFactory.firstOption(RouteFinderFactory.direct(), RouteFinderFactory.dijkstra());
+            default:
+                throw new IllegalArgumentException("Unsupported route finder factory " + name + ".");
+        }
+    }
+}
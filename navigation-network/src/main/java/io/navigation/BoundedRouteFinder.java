@@ -0,0 +1,42 @@
+package io.navigation;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link RouteFinder} which can prune its search against a {@link FareBound} shared with other route finders
+ * searching for the same route.
+ * <p>
+ * Searches stop once every route left to explore costs at least the bound, and offer the fare of each route they find
+ * to the bound. A bounded search may therefore come up empty even though a route exists, when no route cheaper than
+ * the bound exists.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public interface BoundedRouteFinder extends RouteFinder {
+    /**
+     * Finds the route from a station to a stop, if it is cheaper than the fare bound.
+     *
+     * @param station   the station to start from
+     * @param stop      the stop to find a route to
+     * @param fareBound the fare bound shared with other route finders
+     * @return the route, or empty if the stop is unreachable or no route is cheaper than the bound
+     */
+    Optional<Route> findRoute(Station station, Stop stop, FareBound fareBound);
+
+    /**
+     * Finds the route with the minimum fare from any of the stations to any of the stops, if it is cheaper than the
+     * fare bound.
+     *
+     * @param stations  the stations to start from
+     * @param stops     the stops to find a route to
+     * @param fareBound the fare bound shared with other route finders
+     * @return the route, or empty if none of the stops are reachable or no route is cheaper than the bound
+     */
+    default Optional<Route> findRoute(Set<Station> stations, Set<Stop> stops, FareBound fareBound) {
+        Optional<Route> route = findRoute(stations, stops);
+        route.ifPresent(found -> fareBound.offer(found.getRouteInfo().getFare()));
+        return route;
+    }
+}
@@ -0,0 +1,71 @@
+package io.navigation;
+
+import io.navigation.immutables.ImmutableNavigationNetworkStyle;
+import org.immutables.gson.Gson;
+import org.immutables.value.Value.Immutable;
+
+/**
+ * An axis-aligned bounding box on a two-dimensional plane, enclosing every {@link Point} contained in a
+ * {@link ServiceArea}.
+ * <p>
+ * Bounds with a minimum greater than their maximum are empty and contain no points.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@Immutable
+@Gson.TypeAdapters
+@ImmutableNavigationNetworkStyle
+public interface Bounds {
+    static Builder builder() {
+        return ImmutableBounds.builder();
+    }
+
+    static Bounds of(double minimumX, double minimumY, double maximumX, double maximumY) {
+        return ImmutableBounds.of(minimumX, minimumY, maximumX, maximumY);
+    }
+
+    static Bounds empty() {
+        return of(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    }
+
+    double getMinimumX();
+
+    double getMinimumY();
+
+    double getMaximumX();
+
+    double getMaximumY();
+
+    default boolean isEmpty() {
+        return getMinimumX() > getMaximumX() || getMinimumY() > getMaximumY();
+    }
+
+    default boolean contains(Point point) {
+        double x = point.getX();
+        double y = point.getY();
+        return x >= getMinimumX() && x <= getMaximumX() && y >= getMinimumY() && y <= getMaximumY();
+    }
+
+    default Bounds union(Bounds bounds) {
+        return of(Math.min(getMinimumX(), bounds.getMinimumX()), Math.min(getMinimumY(), bounds.getMinimumY()),
+                Math.max(getMaximumX(), bounds.getMaximumX()), Math.max(getMaximumY(), bounds.getMaximumY()));
+    }
+
+    default Bounds intersection(Bounds bounds) {
+        return of(Math.max(getMinimumX(), bounds.getMinimumX()), Math.max(getMinimumY(), bounds.getMinimumY()),
+                Math.min(getMaximumX(), bounds.getMaximumX()), Math.min(getMaximumY(), bounds.getMaximumY()));
+    }
+
+    interface Builder {
+        Builder setMinimumX(double minimumX);
+
+        Builder setMinimumY(double minimumY);
+
+        Builder setMaximumX(double maximumX);
+
+        Builder setMaximumY(double maximumY);
+
+        Bounds build();
+    }
+}
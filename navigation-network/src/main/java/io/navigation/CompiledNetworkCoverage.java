@@ -0,0 +1,102 @@
+package io.navigation;
+
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A dense, array-backed representation of a {@link NetworkCoverage}, indexed by the station and stop indices of a
+ * {@link CompiledNetworkGraph}.
+ * <p>
+ * Each {@link ServiceArea} is {@link ServiceArea#compile() compiled}, and stations or stops without a service area are
+ * never within range.
+ *
+ * @param <C> the coordinate type
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class CompiledNetworkCoverage<C> {
+    private final ServiceArea<C>[] stationServiceAreas;
+    private final ServiceArea<C>[] stopServiceAreas;
+
+    private CompiledNetworkCoverage(ServiceArea<C>[] stationServiceAreas, ServiceArea<C>[] stopServiceAreas) {
+        this.stationServiceAreas = stationServiceAreas;
+        this.stopServiceAreas = stopServiceAreas;
+    }
+
+    /**
+     * Compiles the network coverage of a network view, indexed in the iteration order of its network graph.
+     * <p>
+     * Only the station and stop ids of the network graph are read, so the network graph itself is not compiled.
+     *
+     * @param networkView the network view
+     * @param <C>         the coordinate type
+     * @return the compiled network coverage
+     */
+    public static <C> CompiledNetworkCoverage<C> compile(NetworkView<C> networkView) {
+        NetworkGraph networkGraph = networkView.getNetworkGraph();
+        return compile(networkView.getNetworkCoverage(),
+                networkGraph.getStations().size(), NetworkSnapshot.stationIds(networkGraph),
+                networkGraph.getStops().size(), NetworkSnapshot.stopIds(networkGraph));
+    }
+
+    /**
+     * Compiles the network coverage against a compiled network graph.
+     *
+     * @param networkCoverage the network coverage
+     * @param networkGraph    the compiled network graph
+     * @param <C>             the coordinate type
+     * @return the compiled network coverage
+     */
+    public static <C> CompiledNetworkCoverage<C> compile(NetworkCoverage<C> networkCoverage, CompiledNetworkGraph networkGraph) {
+        return compile(networkCoverage, networkGraph.getStationCount(), networkGraph::getStationId, networkGraph.getStopCount(), networkGraph::getStopId);
+    }
+
+    private static <C> CompiledNetworkCoverage<C> compile(NetworkCoverage<C> networkCoverage, int stationCount, IntFunction<String> stationIds,
+                                                          int stopCount, IntFunction<String> stopIds) {
+        ServiceArea<C>[] stationServiceAreas = newServiceAreas(stationCount);
+        Map<String, ServiceArea<C>> stationServiceAreaMap = networkCoverage.getStationServiceAreas();
+        for (int station = 0; station < stationServiceAreas.length; ++station) {
+            stationServiceAreas[station] = compile(stationServiceAreaMap.get(stationIds.apply(station)));
+        }
+        ServiceArea<C>[] stopServiceAreas = newServiceAreas(stopCount);
+        Map<String, ServiceArea<C>> stopServiceAreaMap = networkCoverage.getStopServiceAreas();
+        for (int stop = 0; stop < stopServiceAreas.length; ++stop) {
+            stopServiceAreas[stop] = compile(stopServiceAreaMap.get(stopIds.apply(stop)));
+        }
+        return new CompiledNetworkCoverage<>(stationServiceAreas, stopServiceAreas);
+    }
+
+    public int getStationCount() {
+        return stationServiceAreas.length;
+    }
+
+    public int getStopCount() {
+        return stopServiceAreas.length;
+    }
+
+    public ServiceArea<C> getStationServiceArea(int station) {
+        return stationServiceAreas[station];
+    }
+
+    public ServiceArea<C> getStopServiceArea(int stop) {
+        return stopServiceAreas[stop];
+    }
+
+    public boolean stationWithinRange(int station, C coordinate) {
+        return stationServiceAreas[station].contains(coordinate);
+    }
+
+    public boolean stopWithinRange(int stop, C coordinate) {
+        return stopServiceAreas[stop].contains(coordinate);
+    }
+
+    private static <C> ServiceArea<C> compile(ServiceArea<C> serviceArea) {
+        //uncovered stations and stops are never within range
+        return serviceArea == null ? ServiceArea.empty() : serviceArea.compile();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> ServiceArea<C>[] newServiceAreas(int length) {
+        return (ServiceArea<C>[]) new ServiceArea<?>[length];
+    }
+}
@@ -0,0 +1,300 @@
+package io.navigation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The differences between the compiled forms of a network graph before and after a {@link NetworkDelta}, used by
+ * route engines to find which of their precomputed routes are still valid.
+ * <p>
+ * Connections and destinations which became more expensive (or were removed) can only invalidate the routes which
+ * travel over them, while connections and destinations which became cheaper (or were added) can only invalidate the
+ * routes which cost more than the cheapest route through them.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class CompiledNetworkDiff {
+    //past this many cheaper connections and destinations, every route is treated as affected rather than bounding each one
+    private static final int MAXIMUM_IMPROVEMENTS = 64;
+
+    private final CompiledNetworkGraph previous;
+    private final CompiledNetworkGraph updated;
+    private final boolean structural;
+    private final long[] worsenedConnections;
+    private final long[] worsenedDestinations;
+    private final Improvements improvements;
+    private volatile double[][] improvementFares;
+
+    private CompiledNetworkDiff(CompiledNetworkGraph previous, CompiledNetworkGraph updated, boolean structural,
+                                long[] worsenedConnections, long[] worsenedDestinations, Improvements improvements) {
+        this.previous = previous;
+        this.updated = updated;
+        this.structural = structural;
+        this.worsenedConnections = worsenedConnections;
+        this.worsenedDestinations = worsenedDestinations;
+        this.improvements = improvements;
+    }
+
+    /**
+     * Compares every connection and destination of the previous and updated network graphs by station and stop id.
+     * <p>
+     * Route engines share the differences through {@link CompiledNetworkGraph#diffFrom(CompiledNetworkGraph)} rather
+     * than computing them again.
+     *
+     * @param previous the network graph before the update
+     * @param updated  the network graph after the update
+     * @return the differences between the network graphs
+     */
+    static CompiledNetworkDiff compute(CompiledNetworkGraph previous, CompiledNetworkGraph updated) {
+        boolean structural = previous.getStationCount() != updated.getStationCount() || previous.getStopCount() != updated.getStopCount();
+        for (int station = 0; !structural && station < updated.getStationCount(); ++station) {
+            structural = !previous.getStationId(station).equals(updated.getStationId(station));
+        }
+        for (int stop = 0; !structural && stop < updated.getStopCount(); ++stop) {
+            structural = !previous.getStopId(stop).equals(updated.getStopId(stop));
+        }
+        LongList worsenedConnections = new LongList();
+        LongList worsenedDestinations = new LongList();
+        Improvements improvements = new Improvements();
+        for (int previousStation = 0; previousStation < previous.getStationCount(); ++previousStation) {
+            int station = updated.indexOfStation(previous.getStationId(previousStation));
+            for (int edge = previous.getConnectionStart(previousStation), end = previous.getConnectionEnd(previousStation); edge < end; ++edge) {
+                int previousTarget = previous.getConnectionTarget(edge);
+                int target = station < 0 ? -1 : updated.indexOfStation(previous.getStationId(previousTarget));
+                double fare = target < 0 ? Double.NaN : updated.getConnectionFare(station, target);
+                if (Double.isNaN(fare) || fare > previous.getConnectionFare(edge)) {
+                    worsenedConnections.add(key(previousStation, previousTarget));
+                }
+            }
+            for (int edge = previous.getDestinationStart(previousStation), end = previous.getDestinationEnd(previousStation); edge < end; ++edge) {
+                int previousStop = previous.getDestinationTarget(edge);
+                int stop = station < 0 ? -1 : updated.indexOfStop(previous.getStopId(previousStop));
+                double fare = stop < 0 ? Double.NaN : updated.getDestinationFare(station, stop);
+                if (Double.isNaN(fare) || fare > previous.getDestinationFare(edge)) {
+                    worsenedDestinations.add(key(previousStation, previousStop));
+                }
+            }
+        }
+        for (int station = 0; station < updated.getStationCount(); ++station) {
+            int previousStation = previous.indexOfStation(updated.getStationId(station));
+            for (int edge = updated.getConnectionStart(station), end = updated.getConnectionEnd(station); edge < end; ++edge) {
+                int target = updated.getConnectionTarget(edge);
+                int previousTarget = previousStation < 0 ? -1 : previous.indexOfStation(updated.getStationId(target));
+                double fare = previousTarget < 0 ? Double.NaN : previous.getConnectionFare(previousStation, previousTarget);
+                if (Double.isNaN(fare) || updated.getConnectionFare(edge) < fare) {
+                    improvements.add(station, target, updated.getConnectionFare(edge), false);
+                }
+            }
+            for (int edge = updated.getDestinationStart(station), end = updated.getDestinationEnd(station); edge < end; ++edge) {
+                int stop = updated.getDestinationTarget(edge);
+                int previousStop = previousStation < 0 ? -1 : previous.indexOfStop(updated.getStopId(stop));
+                double fare = previousStop < 0 ? Double.NaN : previous.getDestinationFare(previousStation, previousStop);
+                if (Double.isNaN(fare) || updated.getDestinationFare(edge) < fare) {
+                    improvements.add(station, stop, updated.getDestinationFare(edge), true);
+                }
+            }
+        }
+        return new CompiledNetworkDiff(previous, updated, structural, worsenedConnections.toSortedArray(),
+                worsenedDestinations.toSortedArray(), improvements);
+    }
+
+    CompiledNetworkGraph getPrevious() {
+        return previous;
+    }
+
+    CompiledNetworkGraph getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Represents whether any station or stop was added or removed, which changes the indices of the updated network
+     * graph.
+     *
+     * @return {@code true} if the network graphs have different stations or stops
+     */
+    boolean isStructural() {
+        return structural;
+    }
+
+    boolean isEmpty() {
+        return !structural && worsenedConnections.length == 0 && worsenedDestinations.length == 0 && improvements.size == 0;
+    }
+
+    /**
+     * Represents the connections which became more expensive or were removed, each encoded as
+     * {@code (source << 32) | target} with indices of the previous network graph.
+     *
+     * @return the sorted worsened connections
+     */
+    long[] getWorsenedConnections() {
+        return worsenedConnections;
+    }
+
+    /**
+     * Represents the destinations which became more expensive or were removed, each encoded as
+     * {@code (station << 32) | stop} with indices of the previous network graph.
+     *
+     * @return the sorted worsened destinations
+     */
+    long[] getWorsenedDestinations() {
+        return worsenedDestinations;
+    }
+
+    static int getSource(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    static int getTarget(long edge) {
+        return (int) edge;
+    }
+
+    /**
+     * Finds whether a route found in the previous network graph travels over a connection or destination which became
+     * more expensive, or was removed, in the updated network graph.
+     *
+     * @param route the route
+     * @return {@code true} if the route may now cost more, or may no longer exist
+     */
+    boolean worsens(Route route) {
+        int current = previous.indexOfStation(route.getStation());
+        if (current < 0) {
+            return true;
+        }
+        for (String connection : route.getConnections()) {
+            int next = previous.indexOfStation(connection);
+            if (next < 0 || Arrays.binarySearch(worsenedConnections, key(current, next)) >= 0) {
+                return true;
+            }
+            current = next;
+        }
+        int stop = previous.indexOfStop(route.getStop());
+        return stop < 0 || Arrays.binarySearch(worsenedDestinations, key(current, stop)) >= 0;
+    }
+
+    /**
+     * Finds a lower bound on the fare of any route from a station to a stop in the updated network graph which
+     * travels over a connection or destination which became cheaper, or was added.
+     * <p>
+     * A route found in the previous network graph which costs no more than the bound is still a minimum fare route,
+     * unless it also {@link #worsens(Route)}.
+     *
+     * @param station the station index in the updated network graph
+     * @param stop    the stop index in the updated network graph
+     * @return the lower bound, or {@link Double#POSITIVE_INFINITY} if nothing became cheaper
+     */
+    double getImprovementBound(int station, int stop) {
+        if (improvements.size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (improvements.size > MAXIMUM_IMPROVEMENTS) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double[][] fares = getImprovementFares();
+        double bound = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < improvements.size; ++i) {
+            double fareToSource = fares[i][station];
+            if (fareToSource == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            if (improvements.destinations[i]) {
+                if (improvements.targets[i] == stop) {
+                    bound = Math.min(bound, fareToSource + improvements.fares[i]);
+                }
+            } else {
+                bound = Math.min(bound, fareToSource + improvements.fares[i] + fares[improvements.size + i][stop]);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Computes, for each improvement, the fares from every station to its source followed by (for connections) the
+     * fares from its target to every stop.
+     */
+    private double[][] getImprovementFares() {
+        double[][] fares = improvementFares;
+        if (fares == null) {
+            synchronized (this) {
+                fares = improvementFares;
+                if (fares == null) {
+                    fares = new double[improvements.size * 2][];
+                    //improvements from the same station share the fares to it
+                    Map<Integer, double[]> faresToSources = new HashMap<>();
+                    for (int i = 0; i < improvements.size; ++i) {
+                        fares[i] = faresToSources.computeIfAbsent(improvements.sources[i], source -> updated.shortestPathTree(source, true));
+                        if (!improvements.destinations[i]) {
+                            fares[improvements.size + i] = stopFares(updated.shortestPathTree(improvements.targets[i], false));
+                        }
+                    }
+                    improvementFares = fares;
+                }
+            }
+        }
+        return fares;
+    }
+
+    private double[] stopFares(double[] stationFares) {
+        double[] fares = new double[updated.getStopCount()];
+        for (int stop = 0; stop < fares.length; ++stop) {
+            double fare = Double.POSITIVE_INFINITY;
+            for (int edge = updated.getServiceStart(stop), end = updated.getServiceEnd(stop); edge < end; ++edge) {
+                fare = Math.min(fare, stationFares[updated.getServiceStation(edge)] + updated.getServiceFare(edge));
+            }
+            fares[stop] = fare;
+        }
+        return fares;
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledNetworkDiff{structural=" + structural + ", worsenedConnections=" + worsenedConnections.length
+                + ", worsenedDestinations=" + worsenedDestinations.length + ", improvements=" + improvements.size + "}";
+    }
+
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static final class Improvements {
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] fares = new double[16];
+        private boolean[] destinations = new boolean[16];
+        private int size;
+
+        private void add(int source, int target, double fare, boolean destination) {
+            if (size == sources.length) {
+                int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                fares = Arrays.copyOf(fares, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            fares[size] = fare;
+            destinations[size] = destination;
+            ++size;
+        }
+    }
+}
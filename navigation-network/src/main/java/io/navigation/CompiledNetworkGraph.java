@@ -0,0 +1,567 @@
+package io.navigation;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * A dense, array-backed representation of a {@link NetworkGraph} which is shared by route engines.
+ * <p>
+ * Stations and stops are assigned dense indices in the iteration order of {@link NetworkGraph#getStations()} and
+ * {@link NetworkGraph#getStops()}. Connections (along with their reverse, the incoming connections of each station),
+ * destinations and the stations servicing each stop are stored in compressed-sparse-row form, with each row sorted by
+ * target index. Parallel {@link RouteOption} between the same pair of nodes are collapsed into a single edge carrying
+ * the minimum fare.
+ * <p>
+ * Rows are backed by primitive arrays when compiled. A {@link NetworkSnapshot} provides its own compiled graph, whose
+ * rows are read-only memory-mapped buffers, so graphs compiled on the heap never pay for reading through a buffer.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public abstract class CompiledNetworkGraph {
+    private final NetworkIds stationIds;
+    private final NetworkIds stopIds;
+    private final ConcurrentMap<Object, SharedEngine<?>> engines = new ConcurrentHashMap<>();
+    //held weakly so the previous graph is not kept reachable once every route engine has been carried over
+    private volatile WeakReference<CompiledNetworkDiff> diff;
+
+    CompiledNetworkGraph(NetworkIds stationIds, NetworkIds stopIds) {
+        this.stationIds = stationIds;
+        this.stopIds = stopIds;
+    }
+
+    /**
+     * Compiles the network graph into its dense form.
+     * <p>
+     * Prefer {@link NetworkGraph#getCompiledNetworkGraph()}, which shares the compiled graph across every route engine
+     * created from the same graph instance.
+     *
+     * @param networkGraph the network graph
+     * @return the compiled network graph
+     * @throws IllegalStateException if a connection or destination leads outside the network
+     */
+    public static CompiledNetworkGraph compile(NetworkGraph networkGraph) {
+        Station[] stations = networkGraph.getStations().toArray(new Station[0]);
+        Stop[] stops = networkGraph.getStops().toArray(new Stop[0]);
+        String[] stationIds = new String[stations.length];
+        for (int i = 0; i < stations.length; ++i) {
+            stationIds[i] = stations[i].getId();
+        }
+        String[] stopIds = new String[stops.length];
+        for (int i = 0; i < stops.length; ++i) {
+            stopIds[i] = stops[i].getId();
+        }
+        NetworkIds stationIndices = NetworkIds.of(stationIds);
+        NetworkIds stopIndices = NetworkIds.of(stopIds);
+        RowsBuilder connections = new RowsBuilder(stations.length);
+        RowsBuilder destinations = new RowsBuilder(stations.length);
+        for (int i = 0; i < stations.length; ++i) {
+            Station station = stations[i];
+            connections.startRow();
+            for (RouteOption connection : station.getConnections()) {
+                int target = stationIndices.indexOf(connection.getDestination());
+                if (target < 0) {
+                    throw new IllegalStateException("Found connection for " + station.getId() + " that leads outside the network.");
+                }
+                connections.add(target, connection.getFare());
+            }
+            connections.endRow();
+            destinations.startRow();
+            for (RouteOption destination : station.getDestinations()) {
+                int target = stopIndices.indexOf(destination.getDestination());
+                if (target < 0) {
+                    throw new IllegalStateException("Found destination for " + station.getId() + " that leads outside the network.");
+                }
+                destinations.add(target, destination.getFare());
+            }
+            destinations.endRow();
+        }
+        Rows connectionRows = connections.build();
+        Rows destinationRows = destinations.build();
+        return new ArrayNetworkGraph(stationIndices, stopIndices,
+                connectionRows, connectionRows.transpose(stations.length), destinationRows, destinationRows.transpose(stops.length));
+    }
+
+    /**
+     * Shares a structure built from the graph, such as a route finder, with every user of the same compiled graph.
+     * <p>
+     * Each structure is built at most once per key, by the first caller to request it, and lives as long as the
+     * compiled graph does.
+     *
+     * @param key    the key identifying the structure, such as the factory building it
+     * @param engine builds the structure
+     * @param <T>    the structure type
+     * @return the shared structure
+     */
+    @SuppressWarnings("unchecked")
+    <T> T share(Object key, Supplier<? extends T> engine) {
+        //the map only holds memoizing suppliers, so structures are never built while holding a lock on the map
+        return (T) engines.computeIfAbsent(key, ignored -> new SharedEngine<>(engine)).get();
+    }
+
+    /**
+     * Finds a shared structure which has already been built, without building it.
+     *
+     * @param key the key identifying the structure, such as the factory building it
+     * @param <T> the structure type
+     * @return the shared structure, or empty if it has not been built
+     */
+    @SuppressWarnings("unchecked")
+    <T> Optional<T> findShared(Object key) {
+        SharedEngine<?> engine = engines.get(key);
+        return engine == null ? Optional.empty() : Optional.ofNullable((T) engine.value);
+    }
+
+    /**
+     * Registers how to build a shared structure without building it, unless a structure has already been registered
+     * for the key.
+     *
+     * @param key    the key identifying the structure, such as the factory building it
+     * @param engine builds the structure when it is first shared
+     */
+    void prepare(Object key, Supplier<?> engine) {
+        engines.putIfAbsent(key, new SharedEngine<>(engine));
+    }
+
+    /**
+     * Finds the differences from a previous compiled graph, which are computed once and shared by every route engine
+     * carried over from the previous graph to this one.
+     *
+     * @param previous the compiled graph before the update
+     * @return the differences between the compiled graphs
+     */
+    CompiledNetworkDiff diffFrom(CompiledNetworkGraph previous) {
+        CompiledNetworkDiff diff = getDiff(previous);
+        if (diff == null) {
+            synchronized (this) {
+                diff = getDiff(previous);
+                if (diff == null) {
+                    diff = CompiledNetworkDiff.compute(previous, this);
+                    this.diff = new WeakReference<>(diff);
+                }
+            }
+        }
+        return diff;
+    }
+
+    private CompiledNetworkDiff getDiff(CompiledNetworkGraph previous) {
+        WeakReference<CompiledNetworkDiff> reference = this.diff;
+        CompiledNetworkDiff diff = reference == null ? null : reference.get();
+        return diff == null || diff.getPrevious() != previous ? null : diff;
+    }
+
+    public int getStationCount() {
+        return stationIds.size();
+    }
+
+    public int getStopCount() {
+        return stopIds.size();
+    }
+
+    public String getStationId(int station) {
+        return stationIds.get(station);
+    }
+
+    public String getStopId(int stop) {
+        return stopIds.get(stop);
+    }
+
+    /**
+     * Finds the dense index of the station with the specified id.
+     *
+     * @param id the station id
+     * @return the station index, or {@code -1} if the station is not in the network
+     */
+    public int indexOfStation(String id) {
+        return stationIds.indexOf(id);
+    }
+
+    /**
+     * Finds the dense index of the stop with the specified id.
+     *
+     * @param id the stop id
+     * @return the stop index, or {@code -1} if the stop is not in the network
+     */
+    public int indexOfStop(String id) {
+        return stopIds.indexOf(id);
+    }
+
+    /**
+     * Represents the first connection edge of a station; edges of a station span
+     * {@code [getConnectionStart(station), getConnectionEnd(station))}.
+     *
+     * @param station the station index
+     * @return the index of the first connection edge of the station
+     */
+    public abstract int getConnectionStart(int station);
+
+    public abstract int getConnectionEnd(int station);
+
+    public abstract int getConnectionTarget(int edge);
+
+    public abstract double getConnectionFare(int edge);
+
+    public abstract int getConnectionCount();
+
+    /**
+     * Finds the minimum fare of the connection from a station to another.
+     *
+     * @param station the station index
+     * @param target  the index of the connecting station
+     * @return the minimum connection fare, or {@link Double#NaN} if the station does not connect to the target
+     */
+    public abstract double getConnectionFare(int station, int target);
+
+    /**
+     * Represents the first incoming edge of a station, which leads back to a station connecting to it; edges of a
+     * station span {@code [getIncomingStart(station), getIncomingEnd(station))}.
+     *
+     * @param station the station index
+     * @return the index of the first incoming edge of the station
+     */
+    public abstract int getIncomingStart(int station);
+
+    public abstract int getIncomingEnd(int station);
+
+    public abstract int getIncomingSource(int edge);
+
+    public abstract double getIncomingFare(int edge);
+
+    /**
+     * Represents the first destination edge of a station; edges of a station span
+     * {@code [getDestinationStart(station), getDestinationEnd(station))}.
+     *
+     * @param station the station index
+     * @return the index of the first destination edge of the station
+     */
+    public abstract int getDestinationStart(int station);
+
+    public abstract int getDestinationEnd(int station);
+
+    public abstract int getDestinationTarget(int edge);
+
+    public abstract double getDestinationFare(int edge);
+
+    public abstract int getDestinationCount();
+
+    /**
+     * Finds the minimum fare of the direct route from a station to a stop.
+     *
+     * @param station the station index
+     * @param stop    the stop index
+     * @return the minimum direct fare, or {@link Double#NaN} if the station does not service the stop
+     */
+    public abstract double getDestinationFare(int station, int stop);
+
+    /**
+     * Represents the first service edge of a stop, which leads back to a station servicing the stop; edges of a stop
+     * span {@code [getServiceStart(stop), getServiceEnd(stop))}.
+     *
+     * @param stop the stop index
+     * @return the index of the first service edge of the stop
+     */
+    public abstract int getServiceStart(int stop);
+
+    public abstract int getServiceEnd(int stop);
+
+    public abstract int getServiceStation(int edge);
+
+    public abstract double getServiceFare(int edge);
+
+    /**
+     * Finds the minimum fares from a station to every station, or from every station to a station when reversed.
+     *
+     * @param root    the station index
+     * @param reverse whether to follow the incoming connections of each station
+     * @return the minimum fares indexed by station, {@link Double#POSITIVE_INFINITY} for unreachable stations
+     */
+    double[] shortestPathTree(int root, boolean reverse) {
+        int stationCount = getStationCount();
+        double[] fares = new double[stationCount];
+        Arrays.fill(fares, Double.POSITIVE_INFINITY);
+        FareHeap heap = new FareHeap(stationCount);
+        fares[root] = 0.0;
+        heap.offer(root, 0.0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            double currentFare = fares[current];
+            int start = reverse ? getIncomingStart(current) : getConnectionStart(current);
+            int end = reverse ? getIncomingEnd(current) : getConnectionEnd(current);
+            for (int edge = start; edge < end; ++edge) {
+                int next = reverse ? getIncomingSource(edge) : getConnectionTarget(edge);
+                double fare = currentFare + (reverse ? getIncomingFare(edge) : getConnectionFare(edge));
+                if (fare < fares[next]) {
+                    fares[next] = fare;
+                    heap.offer(next, fare);
+                }
+            }
+        }
+        return fares;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledNetworkGraph{stations=" + stationIds.size() + ", stops=" + stopIds.size()
+                + ", connections=" + getConnectionCount() + ", destinations=" + getDestinationCount() + "}";
+    }
+
+    /**
+     * A compiled graph whose rows are backed by primitive arrays.
+     */
+    private static final class ArrayNetworkGraph extends CompiledNetworkGraph {
+        private final int[] connectionOffsets;
+        private final int[] connectionTargets;
+        private final double[] connectionFares;
+        private final int[] incomingOffsets;
+        private final int[] incomingSources;
+        private final double[] incomingFares;
+        private final int[] destinationOffsets;
+        private final int[] destinationTargets;
+        private final double[] destinationFares;
+        private final int[] serviceOffsets;
+        private final int[] serviceStations;
+        private final double[] serviceFares;
+
+        private ArrayNetworkGraph(NetworkIds stationIds, NetworkIds stopIds, Rows connections, Rows incoming, Rows destinations, Rows services) {
+            super(stationIds, stopIds);
+            this.connectionOffsets = connections.offsets;
+            this.connectionTargets = connections.targets;
+            this.connectionFares = connections.fares;
+            this.incomingOffsets = incoming.offsets;
+            this.incomingSources = incoming.targets;
+            this.incomingFares = incoming.fares;
+            this.destinationOffsets = destinations.offsets;
+            this.destinationTargets = destinations.targets;
+            this.destinationFares = destinations.fares;
+            this.serviceOffsets = services.offsets;
+            this.serviceStations = services.targets;
+            this.serviceFares = services.fares;
+        }
+
+        @Override
+        public int getConnectionStart(int station) {
+            return connectionOffsets[station];
+        }
+
+        @Override
+        public int getConnectionEnd(int station) {
+            return connectionOffsets[station + 1];
+        }
+
+        @Override
+        public int getConnectionTarget(int edge) {
+            return connectionTargets[edge];
+        }
+
+        @Override
+        public double getConnectionFare(int edge) {
+            return connectionFares[edge];
+        }
+
+        @Override
+        public int getConnectionCount() {
+            return connectionTargets.length;
+        }
+
+        @Override
+        public double getConnectionFare(int station, int target) {
+            int edge = Arrays.binarySearch(connectionTargets, connectionOffsets[station], connectionOffsets[station + 1], target);
+            return edge < 0 ? Double.NaN : connectionFares[edge];
+        }
+
+        @Override
+        public int getIncomingStart(int station) {
+            return incomingOffsets[station];
+        }
+
+        @Override
+        public int getIncomingEnd(int station) {
+            return incomingOffsets[station + 1];
+        }
+
+        @Override
+        public int getIncomingSource(int edge) {
+            return incomingSources[edge];
+        }
+
+        @Override
+        public double getIncomingFare(int edge) {
+            return incomingFares[edge];
+        }
+
+        @Override
+        public int getDestinationStart(int station) {
+            return destinationOffsets[station];
+        }
+
+        @Override
+        public int getDestinationEnd(int station) {
+            return destinationOffsets[station + 1];
+        }
+
+        @Override
+        public int getDestinationTarget(int edge) {
+            return destinationTargets[edge];
+        }
+
+        @Override
+        public double getDestinationFare(int edge) {
+            return destinationFares[edge];
+        }
+
+        @Override
+        public int getDestinationCount() {
+            return destinationTargets.length;
+        }
+
+        @Override
+        public double getDestinationFare(int station, int stop) {
+            int edge = Arrays.binarySearch(destinationTargets, destinationOffsets[station], destinationOffsets[station + 1], stop);
+            return edge < 0 ? Double.NaN : destinationFares[edge];
+        }
+
+        @Override
+        public int getServiceStart(int stop) {
+            return serviceOffsets[stop];
+        }
+
+        @Override
+        public int getServiceEnd(int stop) {
+            return serviceOffsets[stop + 1];
+        }
+
+        @Override
+        public int getServiceStation(int edge) {
+            return serviceStations[edge];
+        }
+
+        @Override
+        public double getServiceFare(int edge) {
+            return serviceFares[edge];
+        }
+    }
+
+    private static final class Rows {
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] fares;
+
+        private Rows(int[] offsets, int[] targets, double[] fares) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.fares = fares;
+        }
+
+        private Rows transpose(int columns) {
+            int[] transposedOffsets = new int[columns + 1];
+            for (int target : targets) {
+                ++transposedOffsets[target + 1];
+            }
+            for (int i = 0; i < columns; ++i) {
+                transposedOffsets[i + 1] += transposedOffsets[i];
+            }
+            int[] cursors = Arrays.copyOf(transposedOffsets, columns);
+            int[] transposedTargets = new int[targets.length];
+            double[] transposedFares = new double[fares.length];
+            //rows are visited in index order, so each transposed row is already sorted by target
+            for (int row = 0; row < offsets.length - 1; ++row) {
+                for (int edge = offsets[row]; edge < offsets[row + 1]; ++edge) {
+                    int position = cursors[targets[edge]]++;
+                    transposedTargets[position] = row;
+                    transposedFares[position] = fares[edge];
+                }
+            }
+            return new Rows(transposedOffsets, transposedTargets, transposedFares);
+        }
+    }
+
+    /**
+     * Builds a shared structure once, releasing how to build it afterwards so nothing it captured stays reachable.
+     */
+    private static final class SharedEngine<T> implements Supplier<T> {
+        private Supplier<? extends T> engine;
+        private volatile T value;
+
+        private SharedEngine(Supplier<? extends T> engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public T get() {
+            T value = this.value;
+            if (value == null) {
+                synchronized (this) {
+                    value = this.value;
+                    if (value == null) {
+                        value = engine.get();
+                        this.value = value;
+                        engine = null;
+                    }
+                }
+            }
+            return value;
+        }
+    }
+
+    private static final class RowsBuilder {
+        private final int[] offsets;
+        private int[] targets = new int[16];
+        private double[] fares = new double[16];
+        private int rows;
+        private int size;
+        private int rowStart;
+
+        private RowsBuilder(int rows) {
+            this.offsets = new int[rows + 1];
+        }
+
+        private void startRow() {
+            rowStart = size;
+        }
+
+        private void add(int target, double fare) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, size * 2);
+                fares = Arrays.copyOf(fares, size * 2);
+            }
+            targets[size] = target;
+            fares[size] = fare;
+            ++size;
+        }
+
+        private void endRow() {
+            //sort the row by target (keeping the original position in the low bits), collapsing parallel edges down to the minimum fare
+            int length = size - rowStart;
+            long[] keys = new long[length];
+            for (int i = 0; i < length; ++i) {
+                keys[i] = ((long) targets[rowStart + i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int[] rowTargets = Arrays.copyOfRange(targets, rowStart, size);
+            double[] rowFares = Arrays.copyOfRange(fares, rowStart, size);
+            int end = rowStart;
+            for (long key : keys) {
+                int position = (int) key;
+                int target = rowTargets[position];
+                double fare = rowFares[position];
+                if (end > rowStart && targets[end - 1] == target) {
+                    fares[end - 1] = Math.min(fares[end - 1], fare);
+                    continue;
+                }
+                targets[end] = target;
+                fares[end] = fare;
+                ++end;
+            }
+            size = end;
+            offsets[++rows] = size;
+        }
+
+        private Rows build() {
+            return new Rows(offsets, Arrays.copyOf(targets, size), Arrays.copyOf(fares, size));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package io.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * A flattened {@link ServiceArea} expression which tests its children in a loop, stopping at the first child which
+ * decides the result.
+ * <p>
+ * Nested {@link ServiceArea.Union} and {@link ServiceArea.Intersection} are flattened into a single node,
+ * {@link ServiceArea.Outside} becomes a negation flag on the node, and {@link ServiceArea.Global} or
+ * {@link ServiceArea.Empty} children are folded away. Children start out ordered by their estimated cost, and are
+ * periodically reordered by how often each child decided the result per unit of cost, so the children most likely to
+ * short-circuit the node are tested first.
+ * <p>
+ * Statistics are updated without synchronization. Concurrent evaluations may lose updates, which only affects the
+ * order children are tested in, never the result.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class CompiledServiceArea<C> implements ServiceArea<C> {
+    private static final int REORDER_INTERVAL = 4096;
+    private static final int LEAF_COST = 4;
+
+    private final boolean any;
+    private final boolean negated;
+    private final int cost;
+    private final Optional<Bounds> bounds;
+    private volatile Order<C> order;
+
+    private CompiledServiceArea(boolean any, boolean negated, List<ServiceArea<? super C>> children, Optional<Bounds> bounds) {
+        this.any = any;
+        this.negated = negated;
+        this.bounds = bounds;
+        int[] costs = children.stream().mapToInt(CompiledServiceArea::cost).toArray();
+        this.cost = 1 + IntStream.of(costs).sum();
+        //cheapest children first until there are statistics to go by
+        Integer[] indices = IntStream.range(0, costs.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(indices, Comparator.comparingInt(i -> costs[i]));
+        @SuppressWarnings("unchecked")
+        ServiceArea<? super C>[] ordered = (ServiceArea<? super C>[]) new ServiceArea<?>[indices.length];
+        int[] orderedCosts = new int[indices.length];
+        for (int i = 0; i < indices.length; ++i) {
+            ordered[i] = children.get(indices[i]);
+            orderedCosts[i] = costs[indices[i]];
+        }
+        this.order = new Order<>(ordered, orderedCosts, new long[indices.length]);
+    }
+
+    /**
+     * Compiles a service area expression, simplifying it down to the fewest nodes which test the same coordinates.
+     *
+     * @param serviceArea the service area
+     * @param <C>         the coordinate type
+     * @return the compiled service area
+     */
+    @SuppressWarnings("unchecked")
+    static <C> ServiceArea<C> compile(ServiceArea<C> serviceArea) {
+        if (serviceArea instanceof CompiledServiceArea) {
+            return serviceArea;
+        }
+        if (serviceArea instanceof Global || serviceArea instanceof Empty) {
+            return serviceArea;
+        }
+        if (serviceArea instanceof Outside) {
+            ServiceArea<C> compiled = compile((ServiceArea<C>) ((Outside<C>) serviceArea).getServiceArea());
+            if (compiled instanceof Global) {
+                return ServiceArea.empty();
+            }
+            if (compiled instanceof Empty) {
+                return ServiceArea.global();
+            }
+            if (compiled instanceof CompiledServiceArea) {
+                CompiledServiceArea<C> node = (CompiledServiceArea<C>) compiled;
+                List<ServiceArea<? super C>> children = Arrays.asList(node.order.children);
+                //a double negation cancels out, leaving the node (or its single child) as it was
+                if (node.negated && children.size() == 1) {
+                    return (ServiceArea<C>) children.get(0);
+                }
+                return new CompiledServiceArea<>(node.any, !node.negated, children, serviceArea.getBounds());
+            }
+            return new CompiledServiceArea<>(false, true, Arrays.asList(compiled), serviceArea.getBounds());
+        }
+        if (serviceArea instanceof Union) {
+            return compile(true, ((Union<C>) serviceArea).getServiceAreas(), serviceArea.getBounds());
+        }
+        if (serviceArea instanceof Intersection) {
+            return compile(false, ((Intersection<C>) serviceArea).getServiceAreas(), serviceArea.getBounds());
+        }
+        return serviceArea;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> ServiceArea<C> compile(boolean any, Collection<ServiceArea<? super C>> serviceAreas, Optional<Bounds> bounds) {
+        List<ServiceArea<? super C>> children = new ArrayList<>();
+        for (ServiceArea<? super C> serviceArea : serviceAreas) {
+            ServiceArea<C> compiled = compile((ServiceArea<C>) serviceArea);
+            //the identity of the node is dropped, while its absorbing element decides the node outright
+            if (compiled instanceof Global) {
+                if (any) {
+                    return ServiceArea.global();
+                }
+                continue;
+            }
+            if (compiled instanceof Empty) {
+                if (!any) {
+                    return ServiceArea.empty();
+                }
+                continue;
+            }
+            if (compiled instanceof CompiledServiceArea) {
+                CompiledServiceArea<C> node = (CompiledServiceArea<C>) compiled;
+                if (node.any == any && !node.negated) {
+                    children.addAll(Arrays.asList(node.order.children));
+                    continue;
+                }
+            }
+            children.add(compiled);
+        }
+        if (children.isEmpty()) {
+            return any ? ServiceArea.empty() : ServiceArea.global();
+        }
+        if (children.size() == 1) {
+            return (ServiceArea<C>) children.get(0);
+        }
+        return new CompiledServiceArea<>(any, false, children, bounds);
+    }
+
+    @Override
+    public boolean contains(C coordinate) {
+        Order<C> order = this.order;
+        ServiceArea<? super C>[] children = order.children;
+        //a union is decided by the first child containing the coordinate, an intersection by the first which does not
+        boolean result = !any;
+        for (int i = 0; i < children.length; ++i) {
+            if (children[i].contains(coordinate) == any) {
+                ++order.hits[i];
+                result = any;
+                break;
+            }
+        }
+        if (++order.evaluations == REORDER_INTERVAL) {
+            this.order = order.reorder();
+        }
+        return result != negated;
+    }
+
+    @Override
+    public Optional<Bounds> getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Relation relate(Bounds bounds) {
+        //a union is decided by the first child containing the bounds, an intersection by the first excluding them
+        Relation decisive = any ? Relation.INSIDE : Relation.OUTSIDE;
+        Relation relation = decisive.negate();
+        for (ServiceArea<? super C> child : order.children) {
+            Relation childRelation = child.relate(bounds);
+            if (childRelation == decisive) {
+                relation = decisive;
+                break;
+            }
+            if (childRelation == Relation.PARTIAL) {
+                relation = Relation.PARTIAL;
+            }
+        }
+        return negated ? relation.negate() : relation;
+    }
+
+    @Override
+    public ServiceArea<C> compile() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        Order<C> order = this.order;
+        StringBuilder builder = new StringBuilder(negated ? "Not" : "").append(any ? "Any{" : "All{");
+        for (int i = 0; i < order.children.length; ++i) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(order.children[i]).append(" hits=").append(order.hits[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private static int cost(ServiceArea<?> serviceArea) {
+        if (serviceArea instanceof CompiledServiceArea) {
+            return ((CompiledServiceArea<?>) serviceArea).cost;
+        }
+        if (serviceArea instanceof Global || serviceArea instanceof Empty) {
+            return 0;
+        }
+        if (serviceArea instanceof Box) {
+            return 1;
+        }
+        if (serviceArea instanceof Circle) {
+            return 2;
+        }
+        if (serviceArea instanceof Polygon) {
+            return 1 + ((Polygon<?>) serviceArea).getVertices().size();
+        }
+        return LEAF_COST;
+    }
+
+    private static final class Order<C> {
+        private final ServiceArea<? super C>[] children;
+        private final int[] costs;
+        private final long[] hits;
+        private int evaluations;
+
+        private Order(ServiceArea<? super C>[] children, int[] costs, long[] hits) {
+            this.children = children;
+            this.costs = costs;
+            this.hits = hits;
+        }
+
+        private Order<C> reorder() {
+            //children deciding the result most often per unit of cost go first, halving the hits so the order keeps adapting
+            Integer[] indices = IntStream.range(0, children.length).boxed().toArray(Integer[]::new);
+            Arrays.sort(indices, Comparator.comparingDouble(i -> -(hits[i] + 1.0) / (costs[i] + 1.0)));
+            @SuppressWarnings("unchecked")
+            ServiceArea<? super C>[] reordered = (ServiceArea<? super C>[]) new ServiceArea<?>[children.length];
+            int[] reorderedCosts = new int[children.length];
+            long[] reorderedHits = new long[children.length];
+            for (int i = 0; i < indices.length; ++i) {
+                reordered[i] = children[indices[i]];
+                reorderedCosts[i] = costs[indices[i]];
+                reorderedHits[i] = hits[indices[i]] / 2;
+            }
+            return new Order<>(reordered, reorderedCosts, reorderedHits);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package io.navigation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A contraction hierarchy over the station connections of a {@link CompiledNetworkGraph}.
+ * <p>
+ * Stations are contracted one at a time in order of importance (edge difference plus the number of contracted
+ * neighbors). Contracting a station adds a shortcut between each pair of its remaining neighbors, unless a witness
+ * search finds a route between them which is no more expensive without the station. Every edge (original or shortcut)
+ * is then split into an upward graph, holding edges towards stations of higher rank, and a downward graph, holding
+ * edges from stations of higher rank indexed by their target.
+ * <p>
+ * Shortcuts remember the two edges they replace so routes found in the hierarchy can be unpacked back into the
+ * original station connections.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class ContractedNetworkGraph {
+    //bounds the witness searches, trading a few unnecessary shortcuts for a much faster preprocessing
+    private static final int WITNESS_SETTLED_LIMIT = 500;
+
+    private final CompiledNetworkGraph networkGraph;
+    private final int[] ranks;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeFirsts;
+    private final int[] edgeSeconds;
+    private final int[] upOffsets;
+    private final int[] upEdges;
+    private final double[] upFares;
+    private final int[] downOffsets;
+    private final int[] downEdges;
+    private final double[] downFares;
+
+    private ContractedNetworkGraph(CompiledNetworkGraph networkGraph, int[] ranks, Edges edges) {
+        int stationCount = networkGraph.getStationCount();
+        this.networkGraph = networkGraph;
+        this.ranks = ranks;
+        this.edgeSources = Arrays.copyOf(edges.sources, edges.size);
+        this.edgeTargets = Arrays.copyOf(edges.targets, edges.size);
+        this.edgeFirsts = Arrays.copyOf(edges.firsts, edges.size);
+        this.edgeSeconds = Arrays.copyOf(edges.seconds, edges.size);
+        this.upOffsets = new int[stationCount + 1];
+        this.downOffsets = new int[stationCount + 1];
+        for (int edge = 0; edge < edges.size; ++edge) {
+            if (ranks[edges.targets[edge]] > ranks[edges.sources[edge]]) {
+                ++upOffsets[edges.sources[edge] + 1];
+            } else {
+                ++downOffsets[edges.targets[edge] + 1];
+            }
+        }
+        for (int i = 0; i < stationCount; ++i) {
+            upOffsets[i + 1] += upOffsets[i];
+            downOffsets[i + 1] += downOffsets[i];
+        }
+        this.upEdges = new int[upOffsets[stationCount]];
+        this.upFares = new double[upEdges.length];
+        this.downEdges = new int[downOffsets[stationCount]];
+        this.downFares = new double[downEdges.length];
+        int[] upCursors = Arrays.copyOf(upOffsets, stationCount);
+        int[] downCursors = Arrays.copyOf(downOffsets, stationCount);
+        for (int edge = 0; edge < edges.size; ++edge) {
+            if (ranks[edges.targets[edge]] > ranks[edges.sources[edge]]) {
+                int position = upCursors[edges.sources[edge]]++;
+                upEdges[position] = edge;
+                upFares[position] = edges.fares[edge];
+            } else {
+                int position = downCursors[edges.targets[edge]]++;
+                downEdges[position] = edge;
+                downFares[position] = edges.fares[edge];
+            }
+        }
+    }
+
+    /**
+     * Contracts every station of the network graph.
+     *
+     * @param networkGraph the compiled network graph
+     * @return the contraction hierarchy
+     */
+    static ContractedNetworkGraph contract(CompiledNetworkGraph networkGraph) {
+        return new Contraction(networkGraph).contract();
+    }
+
+    /**
+     * Contracts every station of an updated network graph in the order the stations of a previous hierarchy were
+     * contracted, skipping the search for the contraction order.
+     * <p>
+     * The hierarchy answers the same routes as one contracted from scratch, although it may hold more shortcuts if the
+     * fares changed significantly. The updated network graph must assign the same indices to its stations as the
+     * network graph of the previous hierarchy.
+     *
+     * @param networkGraph the updated network graph
+     * @param previous     the previous contraction hierarchy
+     * @return the contraction hierarchy of the updated network graph
+     */
+    static ContractedNetworkGraph contract(CompiledNetworkGraph networkGraph, ContractedNetworkGraph previous) {
+        int[] order = new int[previous.ranks.length];
+        for (int station = 0; station < order.length; ++station) {
+            order[previous.ranks[station]] = station;
+        }
+        return new Contraction(networkGraph).contract(order);
+    }
+
+    CompiledNetworkGraph getNetworkGraph() {
+        return networkGraph;
+    }
+
+    int getRank(int station) {
+        return ranks[station];
+    }
+
+    /**
+     * Represents the first upward edge of a station; upward edges lead to stations of higher rank and span
+     * {@code [getUpStart(station), getUpEnd(station))}.
+     *
+     * @param station the station index
+     * @return the position of the first upward edge of the station
+     */
+    int getUpStart(int station) {
+        return upOffsets[station];
+    }
+
+    int getUpEnd(int station) {
+        return upOffsets[station + 1];
+    }
+
+    int getUpEdge(int position) {
+        return upEdges[position];
+    }
+
+    double getUpFare(int position) {
+        return upFares[position];
+    }
+
+    /**
+     * Represents the first downward edge into a station; downward edges lead from stations of higher rank into the
+     * station and span {@code [getDownStart(station), getDownEnd(station))}.
+     *
+     * @param station the station index
+     * @return the position of the first downward edge into the station
+     */
+    int getDownStart(int station) {
+        return downOffsets[station];
+    }
+
+    int getDownEnd(int station) {
+        return downOffsets[station + 1];
+    }
+
+    int getDownEdge(int position) {
+        return downEdges[position];
+    }
+
+    double getDownFare(int position) {
+        return downFares[position];
+    }
+
+    int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Unpacks an edge (which may be a shortcut) into the ids of the stations it travels to, excluding the source of
+     * the edge, in travel order.
+     *
+     * @param edge        the edge
+     * @param connections the station ids to append to
+     */
+    void unpack(int edge, List<String> connections) {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(edge);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (edgeFirsts[current] < 0) {
+                connections.add(networkGraph.getStationId(edgeTargets[current]));
+                continue;
+            }
+            //the second half is pushed first so the first half is unpacked first
+            stack.push(edgeSeconds[current]);
+            stack.push(edgeFirsts[current]);
+        }
+    }
+
+    private static final class Edges {
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] fares = new double[16];
+        private int[] firsts = new int[16];
+        private int[] seconds = new int[16];
+        private int size;
+
+        private int add(int source, int target, double fare, int first, int second) {
+            if (size == sources.length) {
+                int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                fares = Arrays.copyOf(fares, capacity);
+                firsts = Arrays.copyOf(firsts, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            fares[size] = fare;
+            firsts[size] = first;
+            seconds[size] = second;
+            return size++;
+        }
+    }
+
+    private static final class Contraction {
+        private final CompiledNetworkGraph networkGraph;
+        private final int stationCount;
+        private final Edges edges = new Edges();
+        private final int[][] outgoing;
+        private final int[] outgoingSizes;
+        private final int[][] incoming;
+        private final int[] incomingSizes;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] ranks;
+        //witness search state, reset through the touched stations after every search
+        private final double[] witnessFares;
+        private final int[] touched;
+        private final FareHeap witnessHeap;
+        private int touchedSize;
+
+        private Contraction(CompiledNetworkGraph networkGraph) {
+            this.networkGraph = networkGraph;
+            this.stationCount = networkGraph.getStationCount();
+            this.outgoing = new int[stationCount][];
+            this.outgoingSizes = new int[stationCount];
+            this.incoming = new int[stationCount][];
+            this.incomingSizes = new int[stationCount];
+            this.contracted = new boolean[stationCount];
+            this.contractedNeighbors = new int[stationCount];
+            this.ranks = new int[stationCount];
+            this.witnessFares = new double[stationCount];
+            this.touched = new int[stationCount];
+            this.witnessHeap = new FareHeap(stationCount);
+            Arrays.fill(witnessFares, Double.POSITIVE_INFINITY);
+            for (int station = 0; station < stationCount; ++station) {
+                outgoing[station] = new int[4];
+                incoming[station] = new int[4];
+            }
+            for (int station = 0; station < stationCount; ++station) {
+                for (int edge = networkGraph.getConnectionStart(station), end = networkGraph.getConnectionEnd(station); edge < end; ++edge) {
+                    int target = networkGraph.getConnectionTarget(edge);
+                    //loops can never be part of a shortest path
+                    if (target != station) {
+                        link(edges.add(station, target, networkGraph.getConnectionFare(edge), -1, -1));
+                    }
+                }
+            }
+        }
+
+        private ContractedNetworkGraph contract() {
+            FareHeap queue = new FareHeap(stationCount);
+            for (int station = 0; station < stationCount; ++station) {
+                queue.offer(station, priority(station));
+            }
+            int rank = 0;
+            while (!queue.isEmpty()) {
+                double expectedPriority = queue.peekFare();
+                int station = queue.poll();
+                //priorities go stale as neighbors are contracted, so re-check the station against the next best one
+                double priority = priority(station);
+                if (priority > expectedPriority && !queue.isEmpty() && priority > queue.peekFare()) {
+                    queue.offer(station, priority);
+                    continue;
+                }
+                contract(station, true);
+                contracted[station] = true;
+                ranks[station] = rank++;
+            }
+            return new ContractedNetworkGraph(networkGraph, ranks, edges);
+        }
+
+        private ContractedNetworkGraph contract(int[] order) {
+            for (int rank = 0; rank < order.length; ++rank) {
+                int station = order[rank];
+                contract(station, true);
+                contracted[station] = true;
+                ranks[station] = rank;
+            }
+            return new ContractedNetworkGraph(networkGraph, ranks, edges);
+        }
+
+        private double priority(int station) {
+            int shortcuts = contract(station, false);
+            int removedEdges = 0;
+            for (int i = 0; i < outgoingSizes[station]; ++i) {
+                if (!contracted[edges.targets[outgoing[station][i]]]) {
+                    ++removedEdges;
+                }
+            }
+            for (int i = 0; i < incomingSizes[station]; ++i) {
+                if (!contracted[edges.sources[incoming[station][i]]]) {
+                    ++removedEdges;
+                }
+            }
+            return shortcuts - removedEdges + contractedNeighbors[station];
+        }
+
+        /**
+         * Finds (and adds, unless simulating) the shortcuts required to contract the station.
+         *
+         * @return the number of shortcuts required
+         */
+        private int contract(int station, boolean addShortcuts) {
+            int shortcuts = 0;
+            double maximumOutgoingFare = 0;
+            for (int i = 0; i < outgoingSizes[station]; ++i) {
+                int edge = outgoing[station][i];
+                if (!contracted[edges.targets[edge]]) {
+                    maximumOutgoingFare = Math.max(maximumOutgoingFare, edges.fares[edge]);
+                }
+            }
+            for (int i = 0; i < incomingSizes[station]; ++i) {
+                int incomingEdge = incoming[station][i];
+                int source = edges.sources[incomingEdge];
+                if (contracted[source]) {
+                    continue;
+                }
+                double incomingFare = edges.fares[incomingEdge];
+                witnessSearch(source, station, incomingFare + maximumOutgoingFare);
+                for (int j = 0; j < outgoingSizes[station]; ++j) {
+                    int outgoingEdge = outgoing[station][j];
+                    int target = edges.targets[outgoingEdge];
+                    if (contracted[target] || target == source) {
+                        continue;
+                    }
+                    double shortcutFare = incomingFare + edges.fares[outgoingEdge];
+                    if (witnessFares[target] <= shortcutFare) {
+                        continue;
+                    }
+                    ++shortcuts;
+                    if (addShortcuts) {
+                        addShortcut(source, target, shortcutFare, incomingEdge, outgoingEdge);
+                    }
+                }
+                resetWitnessSearch();
+            }
+            if (addShortcuts) {
+                for (int i = 0; i < outgoingSizes[station]; ++i) {
+                    ++contractedNeighbors[edges.targets[outgoing[station][i]]];
+                }
+                for (int i = 0; i < incomingSizes[station]; ++i) {
+                    ++contractedNeighbors[edges.sources[incoming[station][i]]];
+                }
+            }
+            return shortcuts;
+        }
+
+        private void addShortcut(int source, int target, double fare, int first, int second) {
+            //replace an existing edge between the stations rather than adding a parallel one
+            for (int i = 0; i < outgoingSizes[source]; ++i) {
+                int edge = outgoing[source][i];
+                if (edges.targets[edge] == target) {
+                    if (fare < edges.fares[edge]) {
+                        edges.fares[edge] = fare;
+                        edges.firsts[edge] = first;
+                        edges.seconds[edge] = second;
+                    }
+                    return;
+                }
+            }
+            link(edges.add(source, target, fare, first, second));
+        }
+
+        private void link(int edge) {
+            int source = edges.sources[edge];
+            int target = edges.targets[edge];
+            if (outgoingSizes[source] == outgoing[source].length) {
+                outgoing[source] = Arrays.copyOf(outgoing[source], outgoingSizes[source] * 2);
+            }
+            outgoing[source][outgoingSizes[source]++] = edge;
+            if (incomingSizes[target] == incoming[target].length) {
+                incoming[target] = Arrays.copyOf(incoming[target], incomingSizes[target] * 2);
+            }
+            incoming[target][incomingSizes[target]++] = edge;
+        }
+
+        /**
+         * Runs a bounded search from the source over the remaining stations, skipping the station being contracted.
+         */
+        private void witnessSearch(int source, int skipped, double maximumFare) {
+            witnessFares[source] = 0.0;
+            touched[touchedSize++] = source;
+            witnessHeap.offer(source, 0.0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.peekFare() <= maximumFare && settled++ < WITNESS_SETTLED_LIMIT) {
+                int current = witnessHeap.poll();
+                double currentFare = witnessFares[current];
+                for (int i = 0; i < outgoingSizes[current]; ++i) {
+                    int edge = outgoing[current][i];
+                    int target = edges.targets[edge];
+                    if (target == skipped || contracted[target]) {
+                        continue;
+                    }
+                    double fare = currentFare + edges.fares[edge];
+                    if (fare < witnessFares[target]) {
+                        if (witnessFares[target] == Double.POSITIVE_INFINITY) {
+                            touched[touchedSize++] = target;
+                        }
+                        witnessFares[target] = fare;
+                        witnessHeap.offer(target, fare);
+                    }
+                }
+            }
+            witnessHeap.clear();
+        }
+
+        private void resetWitnessSearch() {
+            for (int i = 0; i < touchedSize; ++i) {
+                witnessFares[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedSize = 0;
+        }
+    }
+}
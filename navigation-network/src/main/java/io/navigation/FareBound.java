@@ -0,0 +1,51 @@
+package io.navigation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An upper bound on the fare of a route, shared between route finders searching for the same route so each can
+ * stop as soon as it can no longer beat a route another has already found.
+ * <p>
+ * The bound only ever decreases, and is safe to offer fares to and read from concurrently.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class FareBound {
+    private final AtomicLong fare;
+
+    public FareBound() {
+        this(Double.POSITIVE_INFINITY);
+    }
+
+    public FareBound(double fare) {
+        this.fare = new AtomicLong(Double.doubleToRawLongBits(fare));
+    }
+
+    public double get() {
+        return Double.longBitsToDouble(fare.get());
+    }
+
+    /**
+     * Lowers the bound to the fare of a route which has been found, if it is lower than the current bound.
+     *
+     * @param fare the fare of the route
+     * @return {@code true} if the bound was lowered
+     */
+    public boolean offer(double fare) {
+        while (true) {
+            long current = this.fare.get();
+            if (!(fare < Double.longBitsToDouble(current))) {
+                return false;
+            }
+            if (this.fare.compareAndSet(current, Double.doubleToRawLongBits(fare))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FareBound{fare=" + get() + "}";
+    }
+}
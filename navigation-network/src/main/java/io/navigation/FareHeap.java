@@ -0,0 +1,129 @@
+package io.navigation;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary min-heap of dense node indices keyed by fare, supporting decrease-key.
+ * <p>
+ * Each node index in {@code [0, capacity)} may be present in the heap at most once. Offering a node which is already
+ * present only updates its position when the new fare is lower than the existing one.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class FareHeap {
+    private final int[] nodes;
+    private final double[] fares;
+    private final int[] positions;
+    private int size;
+
+    FareHeap(int capacity) {
+        this.nodes = new int[capacity];
+        this.fares = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts the node with the specified fare, or lowers the fare of the node if it is already present.
+     *
+     * @param node the node index
+     * @param fare the fare to reach the node
+     * @return {@code true} if the node was inserted or its fare was lowered
+     */
+    boolean offer(int node, double fare) {
+        int position = positions[node];
+        if (position < 0) {
+            position = size++;
+            nodes[position] = node;
+            fares[position] = fare;
+            positions[node] = position;
+            siftUp(position);
+            return true;
+        }
+        if (fare >= fares[position]) {
+            return false;
+        }
+        fares[position] = fare;
+        siftUp(position);
+        return true;
+    }
+
+    double peekFare() {
+        if (size == 0) {
+            throw new IllegalStateException("Unable to peek an empty heap.");
+        }
+        return fares[0];
+    }
+
+    int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Unable to poll an empty heap.");
+        }
+        int node = nodes[0];
+        positions[node] = -1;
+        if (--size > 0) {
+            nodes[0] = nodes[size];
+            fares[0] = fares[size];
+            positions[nodes[0]] = 0;
+            siftDown(0);
+        }
+        return node;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; ++i) {
+            positions[nodes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = nodes[position];
+        double fare = fares[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (fares[parent] <= fare) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        place(node, fare, position);
+    }
+
+    private void siftDown(int position) {
+        int node = nodes[position];
+        double fare = fares[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && fares[right] < fares[child]) {
+                child = right;
+            }
+            if (fare <= fares[child]) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        place(node, fare, position);
+    }
+
+    private void move(int from, int to) {
+        nodes[to] = nodes[from];
+        fares[to] = fares[from];
+        positions[nodes[to]] = to;
+    }
+
+    private void place(int node, double fare, int position) {
+        nodes[position] = node;
+        fares[position] = fare;
+        positions[node] = position;
+    }
+}
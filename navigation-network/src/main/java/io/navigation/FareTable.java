@@ -0,0 +1,296 @@
+package io.navigation;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed shortest path tables from every station of a {@link CompiledNetworkGraph}.
+ * <p>
+ * The tables hold, for every (station, stop) pair, the minimum fare and the last station of the route, and for every
+ * (station, station) pair, the parent of the second station in the shortest path tree of the first. Tables are backed
+ * by primitive arrays when computed, or by read-only memory-mapped buffers when loaded from a table file.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class FareTable {
+    private static final int MAGIC = 0x4E4E4650;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+
+    private final int stationCount;
+    private final int stopCount;
+    private final DoubleBuffer fares;
+    private final IntBuffer lastLegs;
+    private final IntBuffer parents;
+
+    private FareTable(int stationCount, int stopCount, DoubleBuffer fares, IntBuffer lastLegs, IntBuffer parents) {
+        this.stationCount = stationCount;
+        this.stopCount = stopCount;
+        this.fares = fares;
+        this.lastLegs = lastLegs;
+        this.parents = parents;
+    }
+
+    /**
+     * Computes the tables with one shortest path tree per station, spread across the common fork/join pool.
+     *
+     * @param networkGraph the compiled network graph
+     * @return the computed fare table
+     */
+    static FareTable compute(CompiledNetworkGraph networkGraph) {
+        int stationCount = networkGraph.getStationCount();
+        int stopCount = networkGraph.getStopCount();
+        checkSize(stationCount, stopCount);
+        double[] fares = new double[stationCount * stopCount];
+        int[] lastLegs = new int[stationCount * stopCount];
+        int[] parents = new int[stationCount * stationCount];
+        IntStream.range(0, stationCount).parallel().forEach(origin -> computeRow(networkGraph, origin, fares, lastLegs, parents));
+        return new FareTable(stationCount, stopCount, DoubleBuffer.wrap(fares), IntBuffer.wrap(lastLegs), IntBuffer.wrap(parents));
+    }
+
+    /**
+     * Maps the tables from the table file if it was written for the same network graph, otherwise computes the tables
+     * and writes them to the table file so later loads can reuse them.
+     *
+     * @param networkGraph the compiled network graph
+     * @param tableFile    the table file
+     * @return the loaded or computed fare table
+     * @throws UncheckedIOException if the table file cannot be read or written
+     */
+    static FareTable load(CompiledNetworkGraph networkGraph, Path tableFile) {
+        int stationCount = networkGraph.getStationCount();
+        int stopCount = networkGraph.getStopCount();
+        checkSize(stationCount, stopCount);
+        long fingerprint = fingerprint(networkGraph);
+        try {
+            if (Files.exists(tableFile)) {
+                try (FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ)) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                    channel.read(header, 0);
+                    header.flip();
+                    if (header.remaining() == HEADER_SIZE && header.getInt() == MAGIC && header.getInt() == VERSION
+                            && header.getInt() == stationCount && header.getInt() == stopCount && header.getLong() == fingerprint) {
+                        long position = HEADER_SIZE;
+                        DoubleBuffer fares = map(channel, position, (long) stationCount * stopCount * Double.BYTES).asDoubleBuffer();
+                        position += (long) stationCount * stopCount * Double.BYTES;
+                        IntBuffer lastLegs = map(channel, position, (long) stationCount * stopCount * Integer.BYTES).asIntBuffer();
+                        position += (long) stationCount * stopCount * Integer.BYTES;
+                        IntBuffer parents = map(channel, position, (long) stationCount * stationCount * Integer.BYTES).asIntBuffer();
+                        return new FareTable(stationCount, stopCount, fares, lastLegs, parents);
+                    }
+                }
+            }
+            FareTable fareTable = compute(networkGraph);
+            fareTable.write(tableFile, fingerprint);
+            return fareTable;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load fare table from " + tableFile + ".", e);
+        }
+    }
+
+    /**
+     * Recomputes the tables for an updated network graph, only recomputing the shortest path trees of the stations
+     * whose routes are affected by the changes.
+     * <p>
+     * A station is affected if its shortest path tree travels over a connection or destination which became more
+     * expensive (or was removed), or if a connection or destination which became cheaper (or was added) could lower
+     * the fare of any of its routes. The updated network graph must assign the same indices to its stations and stops
+     * as the network graph the tables were computed for.
+     *
+     * @param networkGraph the updated network graph
+     * @param diff         the differences between the network graphs
+     * @return the fare table of the updated network graph
+     */
+    FareTable update(CompiledNetworkGraph networkGraph, CompiledNetworkDiff diff) {
+        double[] updatedFares = new double[fares.capacity()];
+        fares.duplicate().get(updatedFares);
+        int[] updatedLastLegs = new int[lastLegs.capacity()];
+        lastLegs.duplicate().get(updatedLastLegs);
+        int[] updatedParents = new int[parents.capacity()];
+        parents.duplicate().get(updatedParents);
+        int[] affected = IntStream.range(0, stationCount).parallel()
+                .filter(origin -> isAffected(origin, diff))
+                .toArray();
+        IntStream.of(affected).parallel().forEach(origin -> computeRow(networkGraph, origin, updatedFares, updatedLastLegs, updatedParents));
+        return new FareTable(stationCount, stopCount, DoubleBuffer.wrap(updatedFares), IntBuffer.wrap(updatedLastLegs), IntBuffer.wrap(updatedParents));
+    }
+
+    /**
+     * Writes the tables to the table file, so later loads for the same network graph can reuse them.
+     *
+     * @param networkGraph the compiled network graph the tables were computed for
+     * @param tableFile    the table file
+     * @throws UncheckedIOException if the table file cannot be written
+     */
+    void save(CompiledNetworkGraph networkGraph, Path tableFile) {
+        try {
+            write(tableFile, fingerprint(networkGraph));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to save fare table to " + tableFile + ".", e);
+        }
+    }
+
+    int getStationCount() {
+        return stationCount;
+    }
+
+    int getStopCount() {
+        return stopCount;
+    }
+
+    /**
+     * Finds the minimum fare from a station to a stop.
+     *
+     * @param station the station index
+     * @param stop    the stop index
+     * @return the minimum fare, or {@link Double#POSITIVE_INFINITY} if the stop is unreachable from the station
+     */
+    double getFare(int station, int stop) {
+        return fares.get(station * stopCount + stop);
+    }
+
+    int getLastLeg(int station, int stop) {
+        return lastLegs.get(station * stopCount + stop);
+    }
+
+    int getParent(int origin, int station) {
+        return parents.get(origin * stationCount + station);
+    }
+
+    private boolean isAffected(int origin, CompiledNetworkDiff diff) {
+        for (long edge : diff.getWorsenedConnections()) {
+            if (getParent(origin, CompiledNetworkDiff.getTarget(edge)) == CompiledNetworkDiff.getSource(edge)) {
+                return true;
+            }
+        }
+        for (long edge : diff.getWorsenedDestinations()) {
+            if (getLastLeg(origin, CompiledNetworkDiff.getTarget(edge)) == CompiledNetworkDiff.getSource(edge)) {
+                return true;
+            }
+        }
+        for (int stop = 0; stop < stopCount; ++stop) {
+            if (diff.getImprovementBound(origin, stop) < getFare(origin, stop)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void computeRow(CompiledNetworkGraph networkGraph, int origin, double[] fares, int[] lastLegs, int[] parents) {
+        int stationCount = networkGraph.getStationCount();
+        int stopCount = networkGraph.getStopCount();
+        double[] stationFares = new double[stationCount];
+        FareHeap heap = new FareHeap(stationCount);
+        Arrays.fill(stationFares, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, origin * stationCount, (origin + 1) * stationCount, -1);
+        Arrays.fill(fares, origin * stopCount, (origin + 1) * stopCount, Double.POSITIVE_INFINITY);
+        Arrays.fill(lastLegs, origin * stopCount, (origin + 1) * stopCount, -1);
+        stationFares[origin] = 0.0;
+        heap.offer(origin, 0.0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            double currentFare = stationFares[current];
+            for (int edge = networkGraph.getDestinationStart(current), end = networkGraph.getDestinationEnd(current); edge < end; ++edge) {
+                int cell = origin * stopCount + networkGraph.getDestinationTarget(edge);
+                double costToStop = currentFare + networkGraph.getDestinationFare(edge);
+                if (costToStop < fares[cell]) {
+                    fares[cell] = costToStop;
+                    lastLegs[cell] = current;
+                }
+            }
+            for (int edge = networkGraph.getConnectionStart(current), end = networkGraph.getConnectionEnd(current); edge < end; ++edge) {
+                int connectingStation = networkGraph.getConnectionTarget(edge);
+                double newFareToConnection = currentFare + networkGraph.getConnectionFare(edge);
+                if (newFareToConnection < stationFares[connectingStation]) {
+                    stationFares[connectingStation] = newFareToConnection;
+                    parents[origin * stationCount + connectingStation] = current;
+                    heap.offer(connectingStation, newFareToConnection);
+                }
+            }
+        }
+    }
+
+    private void write(Path tableFile, long fingerprint) throws IOException {
+        Path directory = tableFile.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, tableFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(stationCount).putInt(stopCount).putLong(fingerprint);
+                header.flip();
+                channel.write(header, 0);
+                long position = HEADER_SIZE;
+                MappedByteBuffer faresBuffer = map(channel, FileChannel.MapMode.READ_WRITE, position, (long) fares.capacity() * Double.BYTES);
+                faresBuffer.asDoubleBuffer().put(fares.duplicate());
+                faresBuffer.force();
+                position += (long) fares.capacity() * Double.BYTES;
+                MappedByteBuffer lastLegsBuffer = map(channel, FileChannel.MapMode.READ_WRITE, position, (long) lastLegs.capacity() * Integer.BYTES);
+                lastLegsBuffer.asIntBuffer().put(lastLegs.duplicate());
+                lastLegsBuffer.force();
+                position += (long) lastLegs.capacity() * Integer.BYTES;
+                MappedByteBuffer parentsBuffer = map(channel, FileChannel.MapMode.READ_WRITE, position, (long) parents.capacity() * Integer.BYTES);
+                parentsBuffer.asIntBuffer().put(parents.duplicate());
+                parentsBuffer.force();
+            }
+            //readers only ever observe a complete table file
+            Files.move(temporaryFile, tableFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return map(channel, FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void checkSize(int stationCount, int stopCount) {
+        long cells = Math.max((long) stationCount * stopCount, (long) stationCount * stationCount);
+        //the largest table must be addressable by int and mappable as a single buffer
+        if (cells * Double.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unable to build fare tables for " + stationCount + " stations and "
+                    + stopCount + " stops as they exceed the maximum table size.");
+        }
+    }
+
+    private static long fingerprint(CompiledNetworkGraph networkGraph) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(networkGraph.getStationCount()).putInt(networkGraph.getStopCount());
+        for (int station = 0; station < networkGraph.getStationCount(); ++station) {
+            hasher.putUnencodedChars(networkGraph.getStationId(station));
+            for (int edge = networkGraph.getConnectionStart(station), end = networkGraph.getConnectionEnd(station); edge < end; ++edge) {
+                hasher.putInt(networkGraph.getConnectionTarget(edge)).putDouble(networkGraph.getConnectionFare(edge));
+            }
+            hasher.putInt(-1);
+            for (int edge = networkGraph.getDestinationStart(station), end = networkGraph.getDestinationEnd(station); edge < end; ++edge) {
+                hasher.putInt(networkGraph.getDestinationTarget(edge)).putDouble(networkGraph.getDestinationFare(edge));
+            }
+            hasher.putInt(-1);
+        }
+        for (int stop = 0; stop < networkGraph.getStopCount(); ++stop) {
+            hasher.putUnencodedChars(networkGraph.getStopId(stop));
+        }
+        return hasher.hash().asLong();
+    }
+}
@@ -0,0 +1,184 @@
+package io.navigation;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed fares to and from a set of landmark stations of a {@link CompiledNetworkGraph}, used to derive lower
+ * bounds on the fare of the remaining route from any station to any stop by the triangle inequality.
+ * <p>
+ * Fares are stored interleaved per station ({@code station * landmarkCount + landmark}) so a lower bound for a station
+ * only touches a single contiguous block of each table.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class LandmarkTable {
+    private final int[] landmarks;
+    private final double[] faresFromLandmarks;
+    private final double[] faresToLandmarks;
+    private final double[] stopFaresFromLandmarks;
+    private final double[] stopFaresToLandmarks;
+
+    private LandmarkTable(int[] landmarks, double[] faresFromLandmarks, double[] faresToLandmarks,
+                          double[] stopFaresFromLandmarks, double[] stopFaresToLandmarks) {
+        this.landmarks = landmarks;
+        this.faresFromLandmarks = faresFromLandmarks;
+        this.faresToLandmarks = faresToLandmarks;
+        this.stopFaresFromLandmarks = stopFaresFromLandmarks;
+        this.stopFaresToLandmarks = stopFaresToLandmarks;
+    }
+
+    /**
+     * Selects the landmarks and computes the fares to and from each of them.
+     *
+     * @param networkGraph  the compiled network graph
+     * @param landmarkCount the maximum number of landmarks to select
+     * @param selection     the landmark selection strategy
+     * @return the landmark table
+     */
+    static LandmarkTable compute(CompiledNetworkGraph networkGraph, int landmarkCount, RouteFinderFactory.Landmarks.Selection selection) {
+        int stationCount = networkGraph.getStationCount();
+        int count = Math.min(landmarkCount, stationCount);
+        int[] landmarks = new int[count];
+        double[][] fromLandmarks = new double[count][];
+        double[][] toLandmarks = new double[count][];
+        switch (selection) {
+            case RANDOM: {
+                //a fixed seed keeps the selection (and therefore the search performance) stable across restarts
+                Random random = new Random(stationCount);
+                int[] shuffled = IntStream.range(0, stationCount).toArray();
+                for (int i = 0; i < count; ++i) {
+                    int j = i + random.nextInt(stationCount - i);
+                    int swap = shuffled[i];
+                    shuffled[i] = shuffled[j];
+                    shuffled[j] = swap;
+                    landmarks[i] = shuffled[i];
+                }
+                IntStream.range(0, count).parallel().forEach(i -> {
+                    fromLandmarks[i] = networkGraph.shortestPathTree(landmarks[i], false);
+                    toLandmarks[i] = networkGraph.shortestPathTree(landmarks[i], true);
+                });
+                break;
+            }
+            case FARTHEST: {
+                //each landmark is the station farthest from the landmarks selected so far, favoring unreachable stations
+                double[] nearest = new double[stationCount];
+                Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+                int next = 0;
+                for (int i = 0; i < count; ++i) {
+                    landmarks[i] = next;
+                    fromLandmarks[i] = networkGraph.shortestPathTree(next, false);
+                    toLandmarks[i] = networkGraph.shortestPathTree(next, true);
+                    double farthest = -1;
+                    for (int station = 0; station < stationCount; ++station) {
+                        nearest[station] = Math.min(nearest[station], Math.min(fromLandmarks[i][station], toLandmarks[i][station]));
+                        if (nearest[station] > farthest) {
+                            farthest = nearest[station];
+                            next = station;
+                        }
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported landmark selection " + selection + ".");
+        }
+        return of(networkGraph, landmarks, fromLandmarks, toLandmarks);
+    }
+
+    /**
+     * Recomputes the fares to and from the same landmarks for an updated network graph, skipping the landmark
+     * selection.
+     * <p>
+     * The updated network graph must assign the same indices to its stations as the network graph the table was
+     * computed for.
+     *
+     * @param networkGraph the updated network graph
+     * @return the landmark table of the updated network graph
+     */
+    LandmarkTable update(CompiledNetworkGraph networkGraph) {
+        int count = landmarks.length;
+        double[][] fromLandmarks = new double[count][];
+        double[][] toLandmarks = new double[count][];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            fromLandmarks[i] = networkGraph.shortestPathTree(landmarks[i], false);
+            toLandmarks[i] = networkGraph.shortestPathTree(landmarks[i], true);
+        });
+        return of(networkGraph, landmarks, fromLandmarks, toLandmarks);
+    }
+
+    private static LandmarkTable of(CompiledNetworkGraph networkGraph, int[] landmarks, double[][] fromLandmarks, double[][] toLandmarks) {
+        int stationCount = networkGraph.getStationCount();
+        int count = landmarks.length;
+        double[] faresFromLandmarks = new double[stationCount * count];
+        double[] faresToLandmarks = new double[stationCount * count];
+        for (int i = 0; i < count; ++i) {
+            for (int station = 0; station < stationCount; ++station) {
+                faresFromLandmarks[station * count + i] = fromLandmarks[i][station];
+                faresToLandmarks[station * count + i] = toLandmarks[i][station];
+            }
+        }
+        int stopCount = networkGraph.getStopCount();
+        double[] stopFaresFromLandmarks = new double[stopCount * count];
+        double[] stopFaresToLandmarks = new double[stopCount * count];
+        for (int stop = 0; stop < stopCount; ++stop) {
+            for (int i = 0; i < count; ++i) {
+                //the fare from the landmark to the stop, and the worst (fare to the landmark - last leg) out of the stations servicing the stop
+                double fromLandmark = Double.POSITIVE_INFINITY;
+                double toLandmark = Double.NEGATIVE_INFINITY;
+                for (int edge = networkGraph.getServiceStart(stop), end = networkGraph.getServiceEnd(stop); edge < end; ++edge) {
+                    int station = networkGraph.getServiceStation(edge);
+                    double lastLegCost = networkGraph.getServiceFare(edge);
+                    fromLandmark = Math.min(fromLandmark, fromLandmarks[i][station] + lastLegCost);
+                    toLandmark = Math.max(toLandmark, toLandmarks[i][station] - lastLegCost);
+                }
+                stopFaresFromLandmarks[stop * count + i] = fromLandmark;
+                stopFaresToLandmarks[stop * count + i] = toLandmark;
+            }
+        }
+        return new LandmarkTable(landmarks, faresFromLandmarks, faresToLandmarks, stopFaresFromLandmarks, stopFaresToLandmarks);
+    }
+
+    int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    int getLandmark(int landmark) {
+        return landmarks[landmark];
+    }
+
+    /**
+     * Finds a lower bound on the fare of any route from a station to a stop.
+     *
+     * @param station the station index
+     * @param stop    the stop index
+     * @return the lower bound, or {@link Double#POSITIVE_INFINITY} if the stop is unreachable from the station
+     */
+    double getLowerBound(int station, int stop) {
+        int count = landmarks.length;
+        int stationOffset = station * count;
+        int stopOffset = stop * count;
+        double lowerBound = 0.0;
+        for (int i = 0; i < count; ++i) {
+            //fare(landmark, stop) <= fare(landmark, station) + fare(station, stop)
+            double fromLandmark = faresFromLandmarks[stationOffset + i];
+            if (fromLandmark != Double.POSITIVE_INFINITY) {
+                double stopFromLandmark = stopFaresFromLandmarks[stopOffset + i];
+                if (stopFromLandmark == Double.POSITIVE_INFINITY) {
+                    //the station is reachable from the landmark but the stop is not, so the station cannot reach the stop
+                    return Double.POSITIVE_INFINITY;
+                }
+                lowerBound = Math.max(lowerBound, stopFromLandmark - fromLandmark);
+            }
+            //fare(station, landmark) <= fare(station, stop) + fare(stop, landmark)
+            double toLandmark = faresToLandmarks[stationOffset + i];
+            double stopToLandmark = stopFaresToLandmarks[stopOffset + i];
+            if (toLandmark != Double.POSITIVE_INFINITY && stopToLandmark != Double.POSITIVE_INFINITY) {
+                lowerBound = Math.max(lowerBound, toLandmark - stopToLandmark);
+            }
+        }
+        return lowerBound;
+    }
+}
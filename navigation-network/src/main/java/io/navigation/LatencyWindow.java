@@ -0,0 +1,53 @@
+package io.navigation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A sliding window over the most recent latencies of a lookup, tracking a percentile of the window.
+ * <p>
+ * Latencies are recorded without synchronization beyond claiming a slot, and the percentile is recomputed every
+ * {@value #UPDATE_INTERVAL} samples. Concurrent updates may therefore be lost, which only skews the percentile
+ * slightly.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class LatencyWindow {
+    private static final int UPDATE_INTERVAL = 64;
+
+    private final long[] samples;
+    private final double percentile;
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long percentileNanos;
+
+    /**
+     * Creates a latency window.
+     *
+     * @param size           the number of recent latencies kept
+     * @param percentile     the percentile tracked, in {@code (0, 1]}
+     * @param initialLatency the latency reported until the first percentile has been computed
+     */
+    LatencyWindow(int size, double percentile, long initialLatency) {
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("Unable to track the " + percentile + " percentile.");
+        }
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.percentileNanos = initialLatency;
+    }
+
+    void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        samples[(int) (index % samples.length)] = nanos;
+        if ((index + 1) % UPDATE_INTERVAL == 0) {
+            long[] window = Arrays.copyOf(samples, (int) Math.min(index + 1, samples.length));
+            Arrays.sort(window);
+            percentileNanos = window[(int) Math.min(window.length - 1, Math.ceil(percentile * window.length) - 1)];
+        }
+    }
+
+    long getPercentile() {
+        return percentileNanos;
+    }
+}
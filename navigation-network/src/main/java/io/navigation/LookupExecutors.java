@@ -0,0 +1,182 @@
+package io.navigation;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executors backing the asynchronous lookups of {@link RouteFinder}, {@link NetworkFinder} and
+ * {@link NavigationNetwork}.
+ * <p>
+ * Asynchronous lookups run on a dedicated executor rather than the common fork/join pool, so blocking or long-running
+ * lookups never starve unrelated work. Tasks of a lookup which is cancelled, or which misses its deadline, are
+ * interrupted.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class LookupExecutors {
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+    private static final ScheduledThreadPoolExecutor DEADLINES = createDeadlines();
+
+    private LookupExecutors() {
+    }
+
+    /**
+     * Represents the executor asynchronous lookups run on when none is specified.
+     * <p>
+     * This starts a virtual thread per lookup when the runtime supports virtual threads, and otherwise falls back to
+     * an unbounded pool of daemon threads dedicated to lookups.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Runs a lookup on the executor, interrupting it if the returned future is completed first (by cancellation or a
+     * missed deadline).
+     *
+     * @param lookup   the lookup
+     * @param executor the executor to run the lookup on
+     * @param <T>      the result type
+     * @return the future result of the lookup
+     */
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> lookup, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                future.complete(lookup.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, null);
+        future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                task.cancel(true);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a lookup on the executor, failing it with a {@link TimeoutException} if it has not completed within the
+     * deadline.
+     *
+     * @param lookup   the lookup
+     * @param executor the executor to run the lookup on
+     * @param deadline the maximum time the lookup may take
+     * @param <T>      the result type
+     * @return the future result of the lookup
+     */
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> lookup, Executor executor, Duration deadline) {
+        return withDeadline(supplyAsync(lookup, executor), deadline);
+    }
+
+    /**
+     * Fails a lookup with a {@link TimeoutException} if it has not completed within the deadline.
+     *
+     * @param future   the future result of the lookup
+     * @param deadline the maximum time the lookup may take
+     * @param <T>      the result type
+     * @return the future result of the lookup
+     */
+    static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, Duration deadline) {
+        if (!future.isDone()) {
+            ScheduledFuture<?> timeout = DEADLINES.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("Unable to complete lookup within " + deadline + ".")),
+                    deadline.toNanos(), TimeUnit.NANOSECONDS
+            );
+            future.whenComplete((result, failure) -> timeout.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * Runs a task on the deadline scheduler after a delay. Tasks are expected to be short, such as completing a future
+     * or handing a lookup off to its executor.
+     *
+     * @param task  the task
+     * @param delay the delay, in nanoseconds
+     * @return the scheduled task, which may be cancelled before it runs
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return DEADLINES.schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits for a lookup to complete, rethrowing its failure unwrapped.
+     *
+     * @param future the future result of the lookup
+     * @param <T>    the result type
+     * @return the result of the lookup
+     * @throws CancellationException if the current thread is interrupted while waiting, which also cancels the lookup
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while finding route.");
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    /**
+     * Checks whether the lookup running on the current thread has been interrupted, which route engines call from
+     * their main loop so cancelled lookups stop searching promptly.
+     *
+     * @throws CancellationException if the current thread has been interrupted
+     */
+    static void checkInterrupted() {
+        //the interrupt status is left set, so callers further up the stack can still observe it
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Interrupted while finding route.");
+        }
+    }
+
+    private static Executor createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //virtual threads are unavailable before Java 21
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("navigation-network-lookup-%d")
+                    .build());
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createDeadlines() {
+        ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("navigation-network-deadline-%d")
+                .build());
+        deadlines.setRemoveOnCancelPolicy(true);
+        return deadlines;
+    }
+}
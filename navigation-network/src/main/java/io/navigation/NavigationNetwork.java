@@ -4,11 +4,16 @@ import com.google.common.collect.ImmutableSet;
 import io.navigation.immutables.ImmutableNavigationNetworkStyle;
 import lombok.NonNull;
 import org.immutables.value.Value.Auxiliary;
-import org.immutables.value.Value.Derived;
 import org.immutables.value.Value.Immutable;
+import org.immutables.value.Value.Lazy;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -38,14 +43,80 @@ public interface NavigationNetwork<C> extends NetworkView<C> {
     @Auxiliary
     RouteFinderFactory getRouteFinderFactory();
 
-    @Derived
+    /**
+     * Represents the network finder created by the {@link #getNetworkFinderFactory()} for the network.
+     * <p>
+     * The network finder is created on first access (or by {@link #warmUp()}), and is shared by every network with the
+     * same network graph instance, network finder factory and network coverage. Sharing the network finder never
+     * compiles the network graph.
+     *
+     * @return the network finder of the network
+     */
+    @Lazy
     default NetworkFinder<C> getNetworkFinder() {
-        return getNetworkFinderFactory().create(this);
+        return NetworkFinders.share(this, getNetworkFinderFactory());
     }
 
-    @Derived
+    /**
+     * Represents the route finder created by the {@link #getRouteFinderFactory()} for the network graph.
+     * <p>
+     * The route finder is created on first access (or by {@link #warmUp()}), and is shared by every network with the
+     * same network graph instance and route finder factory. Networks produced by {@link #update(NetworkDelta)} carry
+     * the route finder of the previous network over to the updated network graph instead.
+     *
+     * @return the route finder of the network
+     */
+    @Lazy
     default RouteFinder getRouteFinder() {
-        return getRouteFinderFactory().create(getNetworkGraph());
+        RouteFinderFactory routeFinderFactory = getRouteFinderFactory();
+        NetworkGraph networkGraph = getNetworkGraph();
+        return networkGraph.getCompiledNetworkGraph().share(routeFinderFactory, () -> routeFinderFactory.create(networkGraph));
+    }
+
+    /**
+     * Creates the network finder and route finder of the network, if they have not been created already.
+     * <p>
+     * Finders are otherwise created by the first lookup which needs them, so warming up a network moves their
+     * construction off of the lookup path.
+     *
+     * @return the network
+     */
+    default NavigationNetwork<C> warmUp() {
+        getNetworkFinder();
+        getRouteFinder();
+        return this;
+    }
+
+    /**
+     * Applies the changes of a delta to the network graph, producing the next version of the network.
+     * <p>
+     * The route finder of the network, if it has been created, is carried over to the updated network graph by
+     * {@link RouteFinderFactory#update(RouteFinder, NetworkGraph, NetworkGraph)} when the updated network first needs
+     * it, so only the shortest path data and cached routes affected by the changes are recomputed. Otherwise the
+     * updated network creates its own route finder. The network itself is left unchanged.
+     *
+     * @param delta the changes to apply
+     * @return the updated network
+     * @throws IllegalArgumentException if a change refers to a station, stop or route option which is not in the
+     *                                  network, adds one which already is, or adds a route option which leads outside
+     *                                  the network
+     */
+    default NavigationNetwork<C> update(@NonNull NetworkDelta delta) {
+        NetworkGraph previousNetworkGraph = getNetworkGraph();
+        NetworkGraph networkGraph = previousNetworkGraph.apply(delta);
+        RouteFinderFactory routeFinderFactory = getRouteFinderFactory();
+        //only a route finder which has been built is carried over, so a chain of updates without lookups in between
+        //never holds onto the intermediate networks, and the updated network creates its own route finder instead
+        Optional<RouteFinder> previousRouteFinder = previousNetworkGraph.getCompiledNetworkGraph().findShared(routeFinderFactory);
+        //the updated network picks up the carried over route finder as the shared route finder of its network graph
+        previousRouteFinder.ifPresent(routeFinder -> networkGraph.getCompiledNetworkGraph()
+                .prepare(routeFinderFactory, () -> routeFinderFactory.update(routeFinder, previousNetworkGraph, networkGraph)));
+        NetworkInfo networkInfo = getNetworkInfo();
+        return ImmutableNavigationNetwork.<C>builder()
+                .from(this)
+                .setNetworkInfo(NetworkInfo.of(networkInfo.getName(), networkInfo.getVersion() + 1, Instant.now()))
+                .setNetworkGraph(networkGraph)
+                .build();
     }
 
     default Optional<Station> findPreferredStation(@NonNull C coordinate) {
@@ -68,12 +139,62 @@ public interface NavigationNetwork<C> extends NetworkView<C> {
         return getRouteFinder().findRoute(station, stop);
     }
 
+    default Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+        return getRouteFinder().findRoutes(station, stops);
+    }
+
+    default Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops) {
+        return getRouteFinder().findRoute(stations, stops);
+    }
+
+    default Stream<Optional<Route>> findRoutes(@NonNull List<RouteQuery> queries) {
+        return getRouteFinder().findRoutes(queries);
+    }
+
+    default CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop) {
+        return getRouteFinder().findRouteAsync(station, stop);
+    }
+
+    default CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop, @NonNull Executor executor) {
+        return getRouteFinder().findRouteAsync(station, stop, executor);
+    }
+
+    default CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop,
+                                                              @NonNull Executor executor, @NonNull Duration deadline) {
+        return getRouteFinder().findRouteAsync(station, stop, executor, deadline);
+    }
+
     default Optional<Route> findPreferredRoute(@NonNull C start, @NonNull C destination) {
         Station station = findPreferredStation(start).orElseThrow(() -> new UnreachableStationException(start, this));
         Stop stop = findPreferredStop(destination).orElseThrow(() -> new UnreachableStopException(start, this));
         return findRoute(station, stop);
     }
 
+    default CompletableFuture<Optional<Route>> findPreferredRouteAsync(@NonNull C start, @NonNull C destination) {
+        return findPreferredRouteAsync(start, destination, LookupExecutors.defaultExecutor());
+    }
+
+    default CompletableFuture<Optional<Route>> findPreferredRouteAsync(@NonNull C start, @NonNull C destination, @NonNull Executor executor) {
+        return LookupExecutors.supplyAsync(() -> findPreferredRoute(start, destination), executor);
+    }
+
+    default CompletableFuture<Optional<Route>> findPreferredRouteAsync(@NonNull C start, @NonNull C destination,
+                                                                       @NonNull Executor executor, @NonNull Duration deadline) {
+        return LookupExecutors.supplyAsync(() -> findPreferredRoute(start, destination), executor, deadline);
+    }
+
+    default Optional<Route> findMinimumFareRoute(@NonNull C start, @NonNull C destination) {
+        Set<Station> stations = findAvailableStations(start).collect(ImmutableSet.toImmutableSet());
+        if (stations.isEmpty()) {
+            throw new UnreachableStationException(start, this);
+        }
+        Set<Stop> stops = findAvailableStops(destination).collect(ImmutableSet.toImmutableSet());
+        if (stops.isEmpty()) {
+            throw new UnreachableStopException(destination, this);
+        }
+        return findRoute(stations, stops);
+    }
+
     default Stream<Route> findAvailableRoutes(@NonNull C start, @NonNull C destination) {
         Set<Station> stations = findAvailableStations(start).collect(ImmutableSet.toImmutableSet());
         if (stations.isEmpty()) {
@@ -83,11 +204,8 @@ public interface NavigationNetwork<C> extends NetworkView<C> {
         if (stops.isEmpty()) {
             throw new UnreachableStationException(destination, this);
         }
-        return stations.parallelStream()
-                //mappers are always sequentially evaluated, so no use in using stops.parallelStream() as it'd be misleading
-                .flatMap(station -> stops.stream().map(stop -> findRoute(station, stop)))
-                .filter(Optional::isPresent)
-                .map(Optional::get);
+        //one search per station answers every stop, rather than one search per (station, stop) pair
+        return stations.parallelStream().flatMap(station -> findRoutes(station, stops));
     }
 
     interface Builder<C> {
@@ -0,0 +1,167 @@
+package io.navigation;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current version of a {@link NavigationNetwork}, swapping in newer versions once they have been built and
+ * warmed up in the background.
+ * <p>
+ * Versions are identified by {@link NetworkInfo#getVersion()} and only ever move forward. Lookups should capture
+ * {@link #getNetwork()} once and run entirely against that version, so lookups which are in flight during a swap
+ * finish on the version they started on. Versions are built one at a time, in the order they were requested, so at
+ * most two versions (the current one and the one being warmed up) are held at once.
+ * <p>
+ * Warming up a version builds its route finder and network finder, then warms up each
+ * {@link RouteFinderFactory.Cached} route finder (including those nested in composite route finders) which has a
+ * counterpart in the current version: cached routes which are still valid are carried forward from the current
+ * version, and only the ones invalidated by the new version are reloaded.
+ *
+ * @param <C> the coordinate type
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class NavigationNetworkHolder<C> {
+    private final AtomicReference<NavigationNetwork<C>> network;
+    private final Executor executor;
+    //guarded by this, the version most recently requested, which the next request is built after
+    private CompletableFuture<NavigationNetwork<C>> latest;
+
+    public NavigationNetworkHolder(@NonNull NavigationNetwork<C> network) {
+        this(network, LookupExecutors.defaultExecutor());
+    }
+
+    public NavigationNetworkHolder(@NonNull NavigationNetwork<C> network, @NonNull Executor executor) {
+        this.network = new AtomicReference<>(network);
+        this.executor = executor;
+        this.latest = CompletableFuture.completedFuture(network);
+    }
+
+    /**
+     * Represents the current version of the network.
+     *
+     * @return the current network
+     */
+    public NavigationNetwork<C> getNetwork() {
+        return network.get();
+    }
+
+    public long getVersion() {
+        return network.get().getNetworkInfo().getVersion();
+    }
+
+    /**
+     * Warms up a newer version of the network in the background, then swaps it in.
+     * <p>
+     * The returned future fails with an {@link IllegalStateException} if the version is not newer than the current
+     * version by the time it has been warmed up.
+     *
+     * @param network the newer version of the network
+     * @return the future network, completed once it is the current version
+     */
+    public CompletableFuture<NavigationNetwork<C>> swap(@NonNull NavigationNetwork<C> network) {
+        return submit(current -> network);
+    }
+
+    /**
+     * Applies the changes of a delta to the latest version of the network in the background, then swaps in the
+     * updated network once it has been warmed up.
+     * <p>
+     * Deltas are applied in the order they are submitted, each to the version produced by the previous one.
+     *
+     * @param delta the changes to apply
+     * @return the future network, completed once it is the current version
+     * @see NavigationNetwork#update(NetworkDelta)
+     */
+    public CompletableFuture<NavigationNetwork<C>> update(@NonNull NetworkDelta delta) {
+        return submit(current -> current.update(delta));
+    }
+
+    private synchronized CompletableFuture<NavigationNetwork<C>> submit(UnaryOperator<NavigationNetwork<C>> builder) {
+        CompletableFuture<NavigationNetwork<C>> next = latest
+                .handle((ignored, failure) -> null)
+                .thenCompose(ignored -> LookupExecutors.supplyAsync(() -> {
+                    NavigationNetwork<C> current = network.get();
+                    NavigationNetwork<C> built = builder.apply(current);
+                    warm(current, built);
+                    return swapIn(built);
+                }, executor));
+        latest = next;
+        return next;
+    }
+
+    private NavigationNetwork<C> swapIn(NavigationNetwork<C> next) {
+        long version = next.getNetworkInfo().getVersion();
+        while (true) {
+            NavigationNetwork<C> current = network.get();
+            long currentVersion = current.getNetworkInfo().getVersion();
+            if (version <= currentVersion) {
+                throw new IllegalStateException("Unable to swap in version " + version + " of the network as version "
+                        + currentVersion + " is already current.");
+            }
+            if (network.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static <C> void warm(NavigationNetwork<C> current, NavigationNetwork<C> next) {
+        RouteFinder routeFinder = next.warmUp().getRouteFinder();
+        //a current version which has not created its route finder has no cached routes to carry forward
+        current.getNetworkGraph().getCompiledNetworkGraph().<RouteFinder>findShared(current.getRouteFinderFactory())
+                .ifPresent(currentRouteFinder -> warm(currentRouteFinder, routeFinder, current.getNetworkGraph(), next.getNetworkGraph()));
+    }
+
+    /**
+     * Warms up every {@link RouteFinderFactory.Cached} route finder of the next version, walking composite route
+     * finders in step with those of the current version.
+     */
+    private static void warm(RouteFinder current, RouteFinder next, NetworkGraph currentNetworkGraph, NetworkGraph nextNetworkGraph) {
+        //versions sharing a network graph share its route finder
+        if (current == next) {
+            return;
+        }
+        if (current instanceof RouteFinderFactory.Cached.RouteFinder && next instanceof RouteFinderFactory.Cached.RouteFinder) {
+            ((RouteFinderFactory.Cached.RouteFinder) next)
+                    .warm((RouteFinderFactory.Cached.RouteFinder) current, currentNetworkGraph, nextNetworkGraph);
+        }
+        List<RouteFinder> currentRouteFinders = getRouteFinders(current);
+        List<RouteFinder> nextRouteFinders = getRouteFinders(next);
+        if (current.getClass() != next.getClass() || currentRouteFinders.size() != nextRouteFinders.size()) {
+            return;
+        }
+        for (int i = 0; i < nextRouteFinders.size(); ++i) {
+            warm(currentRouteFinders.get(i), nextRouteFinders.get(i), currentNetworkGraph, nextNetworkGraph);
+        }
+    }
+
+    private static List<RouteFinder> getRouteFinders(RouteFinder routeFinder) {
+        if (routeFinder instanceof RouteFinderFactory.Cached.RouteFinder) {
+            return ((RouteFinderFactory.Cached.RouteFinder) routeFinder).getRouteFinders();
+        }
+        if (routeFinder instanceof RouteFinderFactory.MinimumFare.RouteFinder) {
+            return ((RouteFinderFactory.MinimumFare.RouteFinder) routeFinder).getRouteFinders();
+        }
+        if (routeFinder instanceof RouteFinderFactory.QuickSelect.RouteFinder) {
+            return ((RouteFinderFactory.QuickSelect.RouteFinder) routeFinder).getRouteFinders();
+        }
+        if (routeFinder instanceof RouteFinderFactory.Hedged.RouteFinder) {
+            return ((RouteFinderFactory.Hedged.RouteFinder) routeFinder).getRouteFinders();
+        }
+        if (routeFinder instanceof RouteFinderFactory.RouteMultiFinder) {
+            return ((RouteFinderFactory.RouteMultiFinder) routeFinder).getRouteFinders();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String toString() {
+        return "NavigationNetworkHolder{network=" + network.get().getNetworkInfo() + "}";
+    }
+}
@@ -0,0 +1,109 @@
+package io.navigation;
+
+import io.navigation.immutables.ImmutableNavigationNetworkStyle;
+import org.immutables.value.Value.Enclosing;
+import org.immutables.value.Value.Immutable;
+
+/**
+ * Represents a single change to a {@link NetworkGraph} within a {@link NetworkDelta}.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@Enclosing
+@ImmutableNavigationNetworkStyle
+public interface NetworkChange {
+    static FareUpdate updateFare(String station, String routeOption, double fare) {
+        return ImmutableNetworkChange.FareUpdate.of(station, routeOption, fare);
+    }
+
+    static ConnectionAddition addConnection(String station, RouteOption connection) {
+        return ImmutableNetworkChange.ConnectionAddition.of(station, connection);
+    }
+
+    static DestinationAddition addDestination(String station, RouteOption destination) {
+        return ImmutableNetworkChange.DestinationAddition.of(station, destination);
+    }
+
+    static RouteOptionRemoval removeRouteOption(String station, String routeOption) {
+        return ImmutableNetworkChange.RouteOptionRemoval.of(station, routeOption);
+    }
+
+    static StationAddition addStation(Station station) {
+        return ImmutableNetworkChange.StationAddition.of(station);
+    }
+
+    static StationRemoval removeStation(String station) {
+        return ImmutableNetworkChange.StationRemoval.of(station);
+    }
+
+    static StopAddition addStop(Stop stop) {
+        return ImmutableNetworkChange.StopAddition.of(stop);
+    }
+
+    static StopRemoval removeStop(String stop) {
+        return ImmutableNetworkChange.StopRemoval.of(stop);
+    }
+
+    /**
+     * Changes the fare of a connection or destination {@link RouteOption} of a station.
+     */
+    @Immutable
+    interface FareUpdate extends NetworkChange {
+        String getStation();
+
+        String getRouteOption();
+
+        double getFare();
+    }
+
+    @Immutable
+    interface ConnectionAddition extends NetworkChange {
+        String getStation();
+
+        RouteOption getConnection();
+    }
+
+    @Immutable
+    interface DestinationAddition extends NetworkChange {
+        String getStation();
+
+        RouteOption getDestination();
+    }
+
+    /**
+     * Removes a connection or destination {@link RouteOption} of a station.
+     */
+    @Immutable
+    interface RouteOptionRemoval extends NetworkChange {
+        String getStation();
+
+        String getRouteOption();
+    }
+
+    @Immutable
+    interface StationAddition extends NetworkChange {
+        Station getStation();
+    }
+
+    /**
+     * Removes a station, along with every connection leading to it from the rest of the network.
+     */
+    @Immutable
+    interface StationRemoval extends NetworkChange {
+        String getStation();
+    }
+
+    @Immutable
+    interface StopAddition extends NetworkChange {
+        Stop getStop();
+    }
+
+    /**
+     * Removes a stop, along with every destination leading to it from the stations of the network.
+     */
+    @Immutable
+    interface StopRemoval extends NetworkChange {
+        String getStop();
+    }
+}
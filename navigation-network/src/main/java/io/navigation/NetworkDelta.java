@@ -0,0 +1,46 @@
+package io.navigation;
+
+import io.navigation.immutables.ImmutableNavigationNetworkStyle;
+import org.immutables.value.Value.Immutable;
+
+import java.util.List;
+
+/**
+ * Represents a set of changes to a {@link NetworkGraph}, applied in order by {@link NetworkGraph#apply(NetworkDelta)}.
+ * <p>
+ * Route engines created from the previous graph are carried over to the updated graph by
+ * {@link RouteFinderFactory#update(RouteFinder, NetworkGraph, NetworkGraph)}, which only recomputes the shortest path
+ * data affected by the changes.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@Immutable
+@ImmutableNavigationNetworkStyle
+public interface NetworkDelta {
+    static Builder builder() {
+        return ImmutableNetworkDelta.builder();
+    }
+
+    static NetworkDelta of(Iterable<? extends NetworkChange> changes) {
+        return ImmutableNetworkDelta.of(changes);
+    }
+
+    static NetworkDelta of(NetworkChange... changes) {
+        return builder().addChanges(changes).build();
+    }
+
+    List<NetworkChange> getChanges();
+
+    interface Builder {
+        Builder addChange(NetworkChange change);
+
+        Builder addChanges(NetworkChange... changes);
+
+        Builder addAllChanges(Iterable<? extends NetworkChange> changes);
+
+        Builder setChanges(Iterable<? extends NetworkChange> changes);
+
+        NetworkDelta build();
+    }
+}
@@ -0,0 +1,154 @@
+package io.navigation;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the changes of a {@link NetworkDelta} to a {@link NetworkGraph}.
+ * <p>
+ * Stations and stops keep their position in the updated graph, with additions placed after them, so the dense
+ * indices of the {@link CompiledNetworkGraph} are unchanged unless stations or stops are removed.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class NetworkDeltas {
+    private NetworkDeltas() {
+    }
+
+    /**
+     * Applies the changes of the delta, in order, to the network graph.
+     *
+     * @param networkGraph the network graph
+     * @param delta        the changes to apply
+     * @return the updated network graph
+     * @throws IllegalArgumentException if a change refers to a station, stop or route option which is not in the
+     *                                  network, adds one which already is, or adds a route option which leads outside
+     *                                  the network
+     */
+    static NetworkGraph apply(NetworkGraph networkGraph, NetworkDelta delta) {
+        Map<String, Station> stations = new LinkedHashMap<>();
+        networkGraph.getStations().forEach(station -> stations.put(station.getId(), station));
+        Map<String, Stop> stops = new LinkedHashMap<>();
+        networkGraph.getStops().forEach(stop -> stops.put(stop.getId(), stop));
+        //stations given new route options, whose destinations are validated once every change has been applied
+        Set<String> extendedStations = new HashSet<>();
+        for (NetworkChange change : delta.getChanges()) {
+            if (change instanceof NetworkChange.FareUpdate) {
+                NetworkChange.FareUpdate fareUpdate = (NetworkChange.FareUpdate) change;
+                Station station = getStation(stations, fareUpdate.getStation());
+                String routeOption = fareUpdate.getRouteOption();
+                boolean connection = station.getConnections().stream().anyMatch(option -> option.getId().equals(routeOption));
+                boolean destination = station.getDestinations().stream().anyMatch(option -> option.getId().equals(routeOption));
+                if (!connection && !destination) {
+                    throw new IllegalArgumentException("Unable to find " + routeOption + " in " + station.getId() + ".");
+                }
+                stations.put(station.getId(), Station.builder()
+                        .setId(station.getId())
+                        .setConnections(station.getConnections().stream()
+                                .map(option -> option.getId().equals(routeOption) ? RouteOption.of(option.getId(), option.getDestination(), fareUpdate.getFare()) : option)
+                                .collect(Collectors.toList()))
+                        .setDestinations(station.getDestinations().stream()
+                                .map(option -> option.getId().equals(routeOption) ? RouteOption.of(option.getId(), option.getDestination(), fareUpdate.getFare()) : option)
+                                .collect(Collectors.toList()))
+                        .build());
+            } else if (change instanceof NetworkChange.ConnectionAddition) {
+                NetworkChange.ConnectionAddition connectionAddition = (NetworkChange.ConnectionAddition) change;
+                Station station = getStation(stations, connectionAddition.getStation());
+                stations.put(station.getId(), Station.builder()
+                        .setId(station.getId())
+                        .setConnections(station.getConnections())
+                        .addConnection(connectionAddition.getConnection())
+                        .setDestinations(station.getDestinations())
+                        .build());
+                extendedStations.add(station.getId());
+            } else if (change instanceof NetworkChange.DestinationAddition) {
+                NetworkChange.DestinationAddition destinationAddition = (NetworkChange.DestinationAddition) change;
+                Station station = getStation(stations, destinationAddition.getStation());
+                stations.put(station.getId(), Station.builder()
+                        .setId(station.getId())
+                        .setConnections(station.getConnections())
+                        .setDestinations(station.getDestinations())
+                        .addDestination(destinationAddition.getDestination())
+                        .build());
+                extendedStations.add(station.getId());
+            } else if (change instanceof NetworkChange.RouteOptionRemoval) {
+                NetworkChange.RouteOptionRemoval routeOptionRemoval = (NetworkChange.RouteOptionRemoval) change;
+                Station station = getStation(stations, routeOptionRemoval.getStation());
+                Station updatedStation = filter(station, option -> !option.getId().equals(routeOptionRemoval.getRouteOption()), option -> !option.getId().equals(routeOptionRemoval.getRouteOption()));
+                if (updatedStation == station) {
+                    throw new IllegalArgumentException("Unable to find " + routeOptionRemoval.getRouteOption() + " in " + station.getId() + ".");
+                }
+                stations.put(station.getId(), updatedStation);
+            } else if (change instanceof NetworkChange.StationAddition) {
+                Station station = ((NetworkChange.StationAddition) change).getStation();
+                if (stations.putIfAbsent(station.getId(), station) != null) {
+                    throw new IllegalArgumentException("Unable to add " + station.getId() + " as it is already in the network.");
+                }
+                extendedStations.add(station.getId());
+            } else if (change instanceof NetworkChange.StationRemoval) {
+                String removedStation = ((NetworkChange.StationRemoval) change).getStation();
+                getStation(stations, removedStation);
+                stations.remove(removedStation);
+                //connections leading to the station would otherwise lead outside the network
+                stations.replaceAll((id, station) -> filter(station, option -> !option.getDestination().equals(removedStation), option -> true));
+            } else if (change instanceof NetworkChange.StopAddition) {
+                Stop stop = ((NetworkChange.StopAddition) change).getStop();
+                if (stops.putIfAbsent(stop.getId(), stop) != null) {
+                    throw new IllegalArgumentException("Unable to add " + stop.getId() + " as it is already in the network.");
+                }
+            } else if (change instanceof NetworkChange.StopRemoval) {
+                String removedStop = ((NetworkChange.StopRemoval) change).getStop();
+                if (stops.remove(removedStop) == null) {
+                    throw new IllegalArgumentException("Unable to find " + removedStop + " in the network.");
+                }
+                stations.replaceAll((id, station) -> filter(station, option -> true, option -> !option.getDestination().equals(removedStop)));
+            } else {
+                throw new IllegalArgumentException("Unsupported network change " + change + ".");
+            }
+        }
+        //removals drop the route options leading to what they remove, so only added route options may lead outside
+        for (String id : extendedStations) {
+            Station station = stations.get(id);
+            if (station == null) {
+                continue;
+            }
+            for (RouteOption connection : station.getConnections()) {
+                if (!stations.containsKey(connection.getDestination())) {
+                    throw new IllegalArgumentException("Found connection for " + id + " that leads to "
+                            + connection.getDestination() + " outside the network.");
+                }
+            }
+            for (RouteOption destination : station.getDestinations()) {
+                if (!stops.containsKey(destination.getDestination())) {
+                    throw new IllegalArgumentException("Found destination for " + id + " that leads to "
+                            + destination.getDestination() + " outside the network.");
+                }
+            }
+        }
+        return NetworkGraph.of(stations.values(), stops.values());
+    }
+
+    private static Station getStation(Map<String, Station> stations, String id) {
+        Station station = stations.get(id);
+        if (station == null) {
+            throw new IllegalArgumentException("Unable to find " + id + " in the network.");
+        }
+        return station;
+    }
+
+    private static Station filter(Station station, Predicate<RouteOption> connections, Predicate<RouteOption> destinations) {
+        List<RouteOption> filteredConnections = station.getConnections().stream().filter(connections).collect(Collectors.toList());
+        List<RouteOption> filteredDestinations = station.getDestinations().stream().filter(destinations).collect(Collectors.toList());
+        //unchanged stations are shared with the previous graph
+        if (filteredConnections.size() == station.getConnections().size() && filteredDestinations.size() == station.getDestinations().size()) {
+            return station;
+        }
+        return Station.of(station.getId(), filteredConnections, filteredDestinations);
+    }
+}
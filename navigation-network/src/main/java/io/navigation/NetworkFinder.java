@@ -1,6 +1,9 @@
 package io.navigation;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -15,4 +18,28 @@ public interface NetworkFinder<C> {
     Optional<Stop> findPreferredStop(C coordinate);
 
     Stream<Stop> findAvailableStops(C coordinate);
+
+    default CompletableFuture<Optional<Station>> findPreferredStationAsync(C coordinate) {
+        return findPreferredStationAsync(coordinate, LookupExecutors.defaultExecutor());
+    }
+
+    default CompletableFuture<Optional<Station>> findPreferredStationAsync(C coordinate, Executor executor) {
+        return LookupExecutors.supplyAsync(() -> findPreferredStation(coordinate), executor);
+    }
+
+    default CompletableFuture<Optional<Station>> findPreferredStationAsync(C coordinate, Executor executor, Duration deadline) {
+        return LookupExecutors.supplyAsync(() -> findPreferredStation(coordinate), executor, deadline);
+    }
+
+    default CompletableFuture<Optional<Stop>> findPreferredStopAsync(C coordinate) {
+        return findPreferredStopAsync(coordinate, LookupExecutors.defaultExecutor());
+    }
+
+    default CompletableFuture<Optional<Stop>> findPreferredStopAsync(C coordinate, Executor executor) {
+        return LookupExecutors.supplyAsync(() -> findPreferredStop(coordinate), executor);
+    }
+
+    default CompletableFuture<Optional<Stop>> findPreferredStopAsync(C coordinate, Executor executor, Duration deadline) {
+        return LookupExecutors.supplyAsync(() -> findPreferredStop(coordinate), executor, deadline);
+    }
 }
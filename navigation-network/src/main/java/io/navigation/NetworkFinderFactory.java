@@ -1,11 +1,20 @@
 package io.navigation;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.navigation.immutables.ImmutableNavigationNetworkStyle;
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
 import org.immutables.value.Value.Enclosing;
 import org.immutables.value.Value.Immutable;
 
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -23,6 +32,22 @@ public interface NetworkFinderFactory<C> {
         return ImmutableNetworkFinderFactory.FindFirst.<C>builder().build();
     }
 
+    static <C extends Point> Indexed<C> indexed() {
+        return ImmutableNetworkFinderFactory.Indexed.<C>builder().build();
+    }
+
+    static <C> Cached<C> cached(Function<? super C, Bounds> quantizer) {
+        return cached(quantizer, Cached.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    static <C> Cached<C> cached(Function<? super C, Bounds> quantizer, long maximumSize) {
+        return ImmutableNetworkFinderFactory.Cached.of(quantizer, maximumSize);
+    }
+
+    static <C extends Point> Cached<C> cached(double cellSize) {
+        return cached(Cached.grid(cellSize));
+    }
+
     NetworkFinder<C> create(NetworkView<C> networkView);
 
     @Immutable
@@ -83,22 +108,233 @@ public interface NetworkFinderFactory<C> {
         }
     }
 
-    @RequiredArgsConstructor
+    /**
+     * Indexes the {@link Bounds} of each {@link ServiceArea} in a uniform grid when the network finder is created, so
+     * lookups only test the service areas whose bounds contain the coordinate. Service areas without bounds are tested
+     * on every lookup.
+     * <p>
+     * Stations and stops are found in network graph order, with the first available being preferred.
+     *
+     * @param <C> the coordinate type
+     */
+    @Immutable
+    interface Indexed<C extends Point> extends NetworkFinderFactory<C> {
+        @Override
+        default NetworkFinder<C> create(NetworkView<C> networkView) {
+            return new NetworkFinder<>(networkView);
+        }
+
+        class NetworkFinder<C extends Point> extends AbstractNetworkFinder<C> {
+            private final SpatialGrid stationGrid;
+            private final SpatialGrid stopGrid;
+
+            public NetworkFinder(NetworkView<C> networkView) {
+                super(networkView);
+                CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+                this.stationGrid = SpatialGrid.build(IntStream.range(0, networkCoverage.getStationCount())
+                        .mapToObj(station -> networkCoverage.getStationServiceArea(station).getBounds())
+                        .collect(Collectors.toList()));
+                this.stopGrid = SpatialGrid.build(IntStream.range(0, networkCoverage.getStopCount())
+                        .mapToObj(stop -> networkCoverage.getStopServiceArea(stop).getBounds())
+                        .collect(Collectors.toList()));
+            }
+
+            @Override
+            public Optional<Station> findPreferredStation(C coordinate) {
+                return findAvailableStations(coordinate).findFirst();
+            }
+
+            @Override
+            public Stream<Station> findAvailableStations(C coordinate) {
+                CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+                return stationGrid.getCandidates(coordinate)
+                        .filter(station -> networkCoverage.stationWithinRange(station, coordinate))
+                        .mapToObj(this::getStation);
+            }
+
+            @Override
+            public Optional<Stop> findPreferredStop(C coordinate) {
+                return findAvailableStops(coordinate).findFirst();
+            }
+
+            @Override
+            public Stream<Stop> findAvailableStops(C coordinate) {
+                CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+                return stopGrid.getCandidates(coordinate)
+                        .filter(stop -> networkCoverage.stopWithinRange(stop, coordinate))
+                        .mapToObj(this::getStop);
+            }
+
+            @Override
+            public String toString() {
+                return "Indexed";
+            }
+        }
+    }
+
+    /**
+     * Caches the stations and stops which may be available within each cell of the coordinate space, where cells are
+     * the {@link Bounds} a quantization function maps each coordinate to. Every coordinate must lie within the bounds
+     * of its cell.
+     * <p>
+     * When a cell is first looked up, each service area is related to the whole cell. Service areas containing the
+     * entire cell are available without being evaluated, service areas excluding the entire cell are skipped, and only
+     * the remaining service areas are evaluated per coordinate.
+     * <p>
+     * Stations and stops are found in network graph order, with the first available being preferred.
+     *
+     * @param <C> the coordinate type
+     */
+    @Immutable
+    interface Cached<C> extends NetworkFinderFactory<C> {
+        long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+        /**
+         * Creates a quantization function which maps points onto a square grid.
+         *
+         * @param cellSize the width and height of each cell
+         * @return the quantization function
+         */
+        static Function<Point, Bounds> grid(double cellSize) {
+            return point -> {
+                double x = Math.floor(point.getX() / cellSize) * cellSize;
+                double y = Math.floor(point.getY() / cellSize) * cellSize;
+                return Bounds.of(x, y, x + cellSize, y + cellSize);
+            };
+        }
+
+        Function<? super C, Bounds> getQuantizer();
+
+        long getMaximumSize();
+
+        @Override
+        default NetworkFinder<C> create(NetworkView<C> networkView) {
+            return new NetworkFinder<>(networkView, getQuantizer(), getMaximumSize());
+        }
+
+        class NetworkFinder<C> extends AbstractNetworkFinder<C> {
+            private final Function<? super C, Bounds> quantizer;
+            private final LoadingCache<Bounds, Cell> cells;
+
+            public NetworkFinder(NetworkView<C> networkView, Function<? super C, Bounds> quantizer, long maximumSize) {
+                super(networkView);
+                this.quantizer = quantizer;
+                this.cells = CacheBuilder.newBuilder()
+                        .maximumSize(maximumSize)
+                        .build(CacheLoader.from(bounds -> {
+                            CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+                            return new Cell(
+                                    candidates(networkCoverage.getStationCount(), networkCoverage::getStationServiceArea, bounds),
+                                    candidates(networkCoverage.getStopCount(), networkCoverage::getStopServiceArea, bounds));
+                        }));
+            }
+
+            @Override
+            public Optional<Station> findPreferredStation(C coordinate) {
+                return findAvailableStations(coordinate).findFirst();
+            }
+
+            @Override
+            public Stream<Station> findAvailableStations(C coordinate) {
+                int[] candidates = cells.getUnchecked(quantizer.apply(coordinate)).stations;
+                return available(candidates, getNetworkCoverage()::getStationServiceArea, coordinate).mapToObj(this::getStation);
+            }
+
+            @Override
+            public Optional<Stop> findPreferredStop(C coordinate) {
+                return findAvailableStops(coordinate).findFirst();
+            }
+
+            @Override
+            public Stream<Stop> findAvailableStops(C coordinate) {
+                int[] candidates = cells.getUnchecked(quantizer.apply(coordinate)).stops;
+                return available(candidates, getNetworkCoverage()::getStopServiceArea, coordinate).mapToObj(this::getStop);
+            }
+
+            @Override
+            public String toString() {
+                return "Cached";
+            }
+
+            /**
+             * Finds the candidates within a cell, encoding the service areas which must still be evaluated per
+             * coordinate as the complement of their index.
+             */
+            private static int[] candidates(int count, IntFunction<? extends ServiceArea<?>> serviceAreas, Bounds bounds) {
+                IntStream.Builder candidates = IntStream.builder();
+                for (int i = 0; i < count; ++i) {
+                    switch (serviceAreas.apply(i).relate(bounds)) {
+                        case INSIDE:
+                            candidates.add(i);
+                            break;
+                        case PARTIAL:
+                            candidates.add(~i);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                return candidates.build().toArray();
+            }
+
+            private static <C> IntStream available(int[] candidates, IntFunction<ServiceArea<C>> serviceAreas, C coordinate) {
+                return IntStream.of(candidates)
+                        .filter(candidate -> candidate >= 0 || serviceAreas.apply(~candidate).contains(coordinate))
+                        .map(candidate -> candidate >= 0 ? candidate : ~candidate);
+            }
+
+            private static final class Cell {
+                private final int[] stations;
+                private final int[] stops;
+
+                private Cell(int[] stations, int[] stops) {
+                    this.stations = stations;
+                    this.stops = stops;
+                }
+            }
+        }
+    }
+
     abstract class AbstractNetworkFinder<C> implements NetworkFinder<C> {
-        private final NetworkView<C> networkView;
+        private final IntFunction<Station> stations;
+        private final IntFunction<Stop> stops;
+        private final Supplier<CompiledNetworkCoverage<C>> networkCoverage;
+
+        public AbstractNetworkFinder(@NonNull NetworkView<C> networkView) {
+            NetworkGraph networkGraph = networkView.getNetworkGraph();
+            //snapshot stations are materialized once found, rather than all up front
+            this.stations = NetworkSnapshot.stations(networkGraph);
+            this.stops = NetworkSnapshot.stops(networkGraph);
+            //compiled from the station and stop ids alone, so coordinate lookups never compile the network graph
+            this.networkCoverage = Suppliers.memoize(() -> CompiledNetworkCoverage.compile(networkView));
+        }
 
         @Override
         public Stream<Station> findAvailableStations(C coordinate) {
-            NetworkGraph networkGraph = networkView.getNetworkGraph();
-            NetworkCoverage<C> networkCoverage = networkView.getNetworkCoverage();
-            return networkGraph.getStations().stream().filter(station -> networkCoverage.withinRange(station, coordinate));
+            CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+            return IntStream.range(0, networkCoverage.getStationCount())
+                    .filter(station -> networkCoverage.stationWithinRange(station, coordinate))
+                    .mapToObj(this::getStation);
         }
 
         @Override
         public Stream<Stop> findAvailableStops(C coordinate) {
-            NetworkGraph networkGraph = networkView.getNetworkGraph();
-            NetworkCoverage<C> networkCoverage = networkView.getNetworkCoverage();
-            return networkGraph.getStops().stream().filter(stop -> networkCoverage.withinRange(stop, coordinate));
+            CompiledNetworkCoverage<C> networkCoverage = getNetworkCoverage();
+            return IntStream.range(0, networkCoverage.getStopCount())
+                    .filter(stop -> networkCoverage.stopWithinRange(stop, coordinate))
+                    .mapToObj(this::getStop);
+        }
+
+        protected Station getStation(int station) {
+            return stations.apply(station);
+        }
+
+        protected Stop getStop(int stop) {
+            return stops.apply(stop);
+        }
+
+        protected CompiledNetworkCoverage<C> getNetworkCoverage() {
+            return networkCoverage.get();
         }
     }
 }
@@ -0,0 +1,88 @@
+package io.navigation;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the network finders of every {@link NavigationNetwork} with the same network graph instance, network finder
+ * factory and network coverage, without compiling the network graph.
+ * <p>
+ * Network graphs are held weakly, as are the network finders shared over them, so a network finder lives as long as a
+ * network using it does and a network graph is released once nothing else refers to it. Network finders are created
+ * over a view of the network graph and network coverage alone, so they never hold onto the network which first created
+ * them.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class NetworkFinders {
+    //the shared network finders never lead back to their network graph through the map, so the weak keys can be released
+    private static final LoadingCache<NetworkGraph, Map<List<Object>, WeakReference<NetworkFinder<?>>>> NETWORK_FINDERS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(networkGraph -> new ConcurrentHashMap<>()));
+
+    private NetworkFinders() {
+    }
+
+    /**
+     * Finds the network finder shared by every network with the same network graph instance, network finder factory
+     * and network coverage as the network, creating it if no network is using one.
+     *
+     * @param networkView          the network
+     * @param networkFinderFactory the network finder factory
+     * @param <C>                  the coordinate type
+     * @return the shared network finder
+     */
+    @SuppressWarnings("unchecked")
+    static <C> NetworkFinder<C> share(NetworkView<C> networkView, NetworkFinderFactory<C> networkFinderFactory) {
+        NetworkGraph networkGraph = networkView.getNetworkGraph();
+        NetworkCoverage<C> networkCoverage = networkView.getNetworkCoverage();
+        List<Object> key = Arrays.asList(networkFinderFactory, networkCoverage);
+        Map<List<Object>, WeakReference<NetworkFinder<?>>> networkFinders = NETWORK_FINDERS.getUnchecked(networkGraph);
+        //network finders only index the network lazily, so creating one while holding the lock is cheap
+        synchronized (networkFinders) {
+            WeakReference<NetworkFinder<?>> reference = networkFinders.get(key);
+            NetworkFinder<C> networkFinder = reference == null ? null : (NetworkFinder<C>) reference.get();
+            if (networkFinder == null) {
+                networkFinders.values().removeIf(released -> released.get() == null);
+                networkFinder = networkFinderFactory.create(new View<>(networkView.getNetworkInfo(), networkCoverage, networkGraph));
+                networkFinders.put(key, new WeakReference<>(networkFinder));
+            }
+            return networkFinder;
+        }
+    }
+
+    private static final class View<C> implements NetworkView<C> {
+        private final NetworkInfo networkInfo;
+        private final NetworkCoverage<C> networkCoverage;
+        private final NetworkGraph networkGraph;
+
+        private View(NetworkInfo networkInfo, NetworkCoverage<C> networkCoverage, NetworkGraph networkGraph) {
+            this.networkInfo = networkInfo;
+            this.networkCoverage = networkCoverage;
+            this.networkGraph = networkGraph;
+        }
+
+        @Override
+        public NetworkInfo getNetworkInfo() {
+            return networkInfo;
+        }
+
+        @Override
+        public NetworkCoverage<C> getNetworkCoverage() {
+            return networkCoverage;
+        }
+
+        @Override
+        public NetworkGraph getNetworkGraph() {
+            return networkGraph;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.navigation;
 import io.navigation.immutables.ImmutableNavigationNetworkStyle;
 import org.immutables.gson.Gson;
 import org.immutables.value.Value.Immutable;
+import org.immutables.value.Value.Lazy;
 
 import java.util.Set;
 
@@ -30,6 +31,31 @@ public interface NetworkGraph {
 
     Set<Stop> getStops();
 
+    /**
+     * Represents the dense, array-backed form of the graph shared by route engines created from it.
+     * <p>
+     * The compiled graph is built at most once per graph instance, on first access.
+     *
+     * @return the compiled network graph
+     */
+    @Lazy
+    default CompiledNetworkGraph getCompiledNetworkGraph() {
+        return CompiledNetworkGraph.compile(this);
+    }
+
+    /**
+     * Applies the changes of a delta to the graph, leaving the graph itself unchanged.
+     *
+     * @param delta the changes to apply
+     * @return the updated network graph
+     * @throws IllegalArgumentException if a change refers to a station, stop or route option which is not in the
+     *                                  network, adds one which already is, or adds a route option which leads outside
+     *                                  the network
+     */
+    default NetworkGraph apply(NetworkDelta delta) {
+        return NetworkDeltas.apply(this, delta);
+    }
+
     interface Builder {
         Builder addStation(Station station);
 
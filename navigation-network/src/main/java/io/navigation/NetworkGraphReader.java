@@ -0,0 +1,202 @@
+package io.navigation;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a {@link NetworkGraph} from its JSON form, reading one {@link Station} or {@link Stop} at a time into a
+ * {@link NetworkGraph.Builder} rather than materializing the whole document first.
+ * <p>
+ * Every {@link RouteOption#getDestination()} is validated in the same pass: references to stations or stops which have
+ * not been read yet are held until they are, and any left unresolved once the input is exhausted fail the read.
+ * <p>
+ * Large networks may be split into shards, each a network graph document holding a subset of the stations and stops,
+ * which are parsed in parallel and merged in order. Route options may refer to stations and stops in any shard.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class NetworkGraphReader {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new GsonAdaptersStation())
+            .registerTypeAdapterFactory(new GsonAdaptersStop())
+            .registerTypeAdapterFactory(new GsonAdaptersRouteOption())
+            .create();
+    private static final TypeAdapter<Station> STATION_ADAPTER = GSON.getAdapter(Station.class);
+    private static final TypeAdapter<Stop> STOP_ADAPTER = GSON.getAdapter(Stop.class);
+
+    private final NetworkGraph.Builder builder = NetworkGraph.builder();
+    private final Set<String> stationIds = new HashSet<>();
+    private final Set<String> stopIds = new HashSet<>();
+    //unresolved destinations, mapped to the first station referring to each
+    private final Map<String, String> missingStations = new HashMap<>();
+    private final Map<String, String> missingStops = new HashMap<>();
+
+    private NetworkGraphReader() {
+    }
+
+    /**
+     * Reads a network graph document.
+     *
+     * @param reader the network graph document
+     * @return the network graph
+     * @throws IllegalArgumentException if a station or stop is repeated, or a route option leads outside the network
+     * @throws UncheckedIOException     if the document cannot be read, or is not valid JSON
+     */
+    public static NetworkGraph read(@NonNull Reader reader) {
+        NetworkGraphReader networkGraphReader = new NetworkGraphReader();
+        try {
+            read(new JsonReader(reader), networkGraphReader::addStation, networkGraphReader::addStop);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read network graph.", e);
+        }
+        return networkGraphReader.build();
+    }
+
+    /**
+     * Reads a network graph document from a file.
+     *
+     * @param file the network graph file
+     * @return the network graph
+     * @throws IllegalArgumentException if a station or stop is repeated, or a route option leads outside the network
+     * @throws UncheckedIOException     if the file cannot be read, or is not valid JSON
+     */
+    public static NetworkGraph read(@NonNull Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read network graph " + file + ".", e);
+        }
+    }
+
+    /**
+     * Reads a network graph sharded across several documents, parsing the shards in parallel.
+     * <p>
+     * Stations and stops keep the order of the shards, and their order within each shard.
+     *
+     * @param shards the network graph files
+     * @return the network graph
+     * @throws IllegalArgumentException if a station or stop is repeated, or a route option leads outside the network
+     * @throws UncheckedIOException     if a file cannot be read, or is not valid JSON
+     */
+    public static NetworkGraph read(@NonNull List<Path> shards) {
+        if (shards.size() == 1) {
+            return read(shards.get(0));
+        }
+        List<Shard> parsed = shards.parallelStream().map(Shard::read).collect(Collectors.toList());
+        NetworkGraphReader networkGraphReader = new NetworkGraphReader();
+        for (Shard shard : parsed) {
+            shard.stations.forEach(networkGraphReader::addStation);
+            shard.stops.forEach(networkGraphReader::addStop);
+        }
+        return networkGraphReader.build();
+    }
+
+    private static void read(JsonReader reader, Consumer<Station> stations, Consumer<Stop> stops) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "stations":
+                    readArray(reader, STATION_ADAPTER, stations);
+                    break;
+                case "stops":
+                    readArray(reader, STOP_ADAPTER, stops);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static <T> void readArray(JsonReader reader, TypeAdapter<T> adapter, Consumer<T> values) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.accept(adapter.read(reader));
+        }
+        reader.endArray();
+    }
+
+    private void addStation(Station station) {
+        String id = station.getId();
+        if (!stationIds.add(id)) {
+            throw new IllegalArgumentException("Found duplicate station " + id + " in the network.");
+        }
+        missingStations.remove(id);
+        for (RouteOption connection : station.getConnections()) {
+            if (!stationIds.contains(connection.getDestination())) {
+                missingStations.putIfAbsent(connection.getDestination(), id);
+            }
+        }
+        for (RouteOption destination : station.getDestinations()) {
+            if (!stopIds.contains(destination.getDestination())) {
+                missingStops.putIfAbsent(destination.getDestination(), id);
+            }
+        }
+        builder.addStation(station);
+    }
+
+    private void addStop(Stop stop) {
+        String id = stop.getId();
+        if (!stopIds.add(id)) {
+            throw new IllegalArgumentException("Found duplicate stop " + id + " in the network.");
+        }
+        missingStops.remove(id);
+        builder.addStop(stop);
+    }
+
+    private NetworkGraph build() {
+        if (!missingStations.isEmpty()) {
+            Map.Entry<String, String> missing = missingStations.entrySet().iterator().next();
+            throw new IllegalArgumentException("Found connection for " + missing.getValue() + " that leads to "
+                    + missing.getKey() + " outside the network.");
+        }
+        if (!missingStops.isEmpty()) {
+            Map.Entry<String, String> missing = missingStops.entrySet().iterator().next();
+            throw new IllegalArgumentException("Found destination for " + missing.getValue() + " that leads to "
+                    + missing.getKey() + " outside the network.");
+        }
+        return builder.build();
+    }
+
+    /**
+     * The stations and stops parsed from a single shard, before being merged into the network graph.
+     */
+    private static final class Shard {
+        private final List<Station> stations = new ArrayList<>();
+        private final List<Stop> stops = new ArrayList<>();
+
+        private static Shard read(Path file) {
+            Shard shard = new Shard();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                NetworkGraphReader.read(new JsonReader(reader), shard.stations::add, shard.stops::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read network graph " + file + ".", e);
+            }
+            return shard;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.navigation;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * The ids of the stations (or stops) of a {@link CompiledNetworkGraph}, in dense index order.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+interface NetworkIds {
+    /**
+     * Creates the ids backed by an array, indexed by a hash map.
+     *
+     * @param ids the ids in dense index order
+     * @return the network ids
+     */
+    static NetworkIds of(String[] ids) {
+        ImmutableMap.Builder<String, Integer> indices = ImmutableMap.builder();
+        for (int i = 0; i < ids.length; ++i) {
+            indices.put(ids[i], i);
+        }
+        Map<String, Integer> indexMap = indices.build();
+        return new NetworkIds() {
+            @Override
+            public int size() {
+                return ids.length;
+            }
+
+            @Override
+            public String get(int index) {
+                return ids[index];
+            }
+
+            @Override
+            public int indexOf(String id) {
+                Integer index = indexMap.get(id);
+                return index == null ? -1 : index;
+            }
+        };
+    }
+
+    int size();
+
+    String get(int index);
+
+    /**
+     * Finds the dense index of an id.
+     *
+     * @param id the id
+     * @return the index, or {@code -1} if the id is not in the network
+     */
+    int indexOf(String id);
+}
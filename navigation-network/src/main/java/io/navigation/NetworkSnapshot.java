@@ -0,0 +1,1055 @@
+package io.navigation;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * A versioned binary snapshot of a {@link NetworkGraph} (and optionally its {@link NetworkCoverage}), which is
+ * memory-mapped when opened so route engines run directly off the mapped file.
+ * <p>
+ * A snapshot holds a string table of every station, stop and route option id, hash tables indexing the station and
+ * stop ids, the route options of each station, and the rows of the {@link CompiledNetworkGraph}, all in
+ * compressed-sparse-row form. Opening a snapshot only maps the file: {@link Station} and {@link Stop} values are
+ * materialized from the mapped rows as they are read, rather than up front.
+ * <p>
+ * Opening a snapshot checks the checksum of its header and the sizes of its sections, but never scans the rows, so
+ * opening stays independent of the size of the network. The rows are trusted to be as
+ * {@link #write(NetworkGraph, Path)} wrote them (sorted by target, with every index in range), which makes the writer
+ * responsible for their structure: snapshots should only ever be produced by this class.
+ * <p>
+ * Service areas are stored structurally, so only the {@link ServiceArea} types provided by this library (over
+ * {@link Point} coordinates) can be written to a snapshot.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public final class NetworkSnapshot {
+    private static final int MAGIC = 0x4E4E5353;
+    private static final int VERSION = 1;
+    private static final int FLAG_COVERAGE = 1;
+
+    private static final int STRING_OFFSETS = 0;
+    private static final int STRINGS = 1;
+    private static final int STATION_INDEX = 2;
+    private static final int STOP_INDEX = 3;
+    private static final int ROUTE_OPTIONS = 4;
+    private static final int DESTINATION_OPTIONS = 8;
+    private static final int CONNECTIONS = 12;
+    private static final int INCOMING = 15;
+    private static final int DESTINATIONS = 18;
+    private static final int SERVICES = 21;
+    private static final int STATION_AREA_OFFSETS = 24;
+    private static final int STOP_AREA_OFFSETS = 25;
+    private static final int AREAS = 26;
+    private static final int SECTION_COUNT = 27;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 4 + SECTION_COUNT * (8 + 8);
+    private static final int CHECKSUM_OFFSET = 4 + 4 + 4 + 4 + 4;
+
+    private static final byte GLOBAL = 0;
+    private static final byte EMPTY = 1;
+    private static final byte OUTSIDE = 2;
+    private static final byte INTERSECTION = 3;
+    private static final byte UNION = 4;
+    private static final byte CIRCLE = 5;
+    private static final byte BOX = 6;
+    private static final byte POLYGON = 7;
+
+    private final Path file;
+    private final IntBuffer stringOffsets;
+    private final ByteBuffer strings;
+    private final MappedIds stationIds;
+    private final MappedIds stopIds;
+    private final IntBuffer connectionOffsets;
+    private final IntBuffer connectionIds;
+    private final IntBuffer connectionTargets;
+    private final DoubleBuffer connectionFares;
+    private final IntBuffer destinationOffsets;
+    private final IntBuffer destinationIds;
+    private final IntBuffer destinationTargets;
+    private final DoubleBuffer destinationFares;
+    private final CompiledNetworkGraph compiledNetworkGraph;
+    private final NetworkGraph networkGraph;
+    private final Supplier<Optional<NetworkCoverage<Point>>> networkCoverage;
+
+    private NetworkSnapshot(Path file, int flags, int stationCount, int stopCount, ByteBuffer[] sections) {
+        this.file = file;
+        this.stringOffsets = sections[STRING_OFFSETS].asIntBuffer();
+        this.strings = sections[STRINGS];
+        this.stationIds = new MappedIds(0, stationCount, sections[STATION_INDEX].asIntBuffer());
+        this.stopIds = new MappedIds(stationCount, stopCount, sections[STOP_INDEX].asIntBuffer());
+        this.connectionOffsets = sections[ROUTE_OPTIONS].asIntBuffer();
+        this.connectionIds = sections[ROUTE_OPTIONS + 1].asIntBuffer();
+        this.connectionTargets = sections[ROUTE_OPTIONS + 2].asIntBuffer();
+        this.connectionFares = sections[ROUTE_OPTIONS + 3].asDoubleBuffer();
+        this.destinationOffsets = sections[DESTINATION_OPTIONS].asIntBuffer();
+        this.destinationIds = sections[DESTINATION_OPTIONS + 1].asIntBuffer();
+        this.destinationTargets = sections[DESTINATION_OPTIONS + 2].asIntBuffer();
+        this.destinationFares = sections[DESTINATION_OPTIONS + 3].asDoubleBuffer();
+        this.compiledNetworkGraph = new MappedNetworkGraph(stationIds, stopIds, sections);
+        this.networkGraph = new SnapshotNetworkGraph(this);
+        IntBuffer stationAreaOffsets = sections[STATION_AREA_OFFSETS].asIntBuffer();
+        IntBuffer stopAreaOffsets = sections[STOP_AREA_OFFSETS].asIntBuffer();
+        ByteBuffer areas = sections[AREAS];
+        this.networkCoverage = Suppliers.memoize(() -> (flags & FLAG_COVERAGE) == 0
+                ? Optional.empty()
+                : Optional.of(readNetworkCoverage(stationAreaOffsets, stopAreaOffsets, areas)));
+    }
+
+    /**
+     * Writes a snapshot of the network graph to a file, replacing the file if it exists.
+     *
+     * @param networkGraph the network graph
+     * @param file         the snapshot file
+     * @throws UncheckedIOException if the snapshot file cannot be written
+     */
+    public static void write(@NonNull NetworkGraph networkGraph, @NonNull Path file) {
+        write(networkGraph, Optional.empty(), file);
+    }
+
+    /**
+     * Writes a snapshot of the network graph and the service areas of its stations and stops to a file, replacing
+     * the file if it exists.
+     *
+     * @param networkGraph    the network graph
+     * @param networkCoverage the network coverage
+     * @param file            the snapshot file
+     * @param <C>             the coordinate type
+     * @throws IllegalArgumentException if a service area is not one of the {@link ServiceArea} types provided by this
+     *                                  library
+     * @throws UncheckedIOException     if the snapshot file cannot be written
+     */
+    public static <C extends Point> void write(@NonNull NetworkGraph networkGraph, @NonNull NetworkCoverage<C> networkCoverage, @NonNull Path file) {
+        write(networkGraph, Optional.of(networkCoverage), file);
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IllegalArgumentException if the file is not a snapshot, was written by an unsupported version of the
+     *                                  snapshot format, or its header is corrupt or does not match the size of the file
+     * @throws UncheckedIOException     if the snapshot file cannot be read
+     */
+    public static NetworkSnapshot open(@NonNull Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                //keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Unable to open " + file + " as it is not a network snapshot.");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unable to open " + file + " as it was written with version " + version
+                        + " of the snapshot format.");
+            }
+            int flags = header.getInt();
+            int stationCount = header.getInt();
+            int stopCount = header.getInt();
+            if (header.getInt() != checksum(header)) {
+                throw new IllegalArgumentException("Unable to open " + file + " as the network snapshot header is corrupt.");
+            }
+            ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+            for (int section = 0; section < SECTION_COUNT; ++section) {
+                long position = header.getLong();
+                long size = header.getLong();
+                if (position < HEADER_SIZE || size < 0 || position + size > channel.size()) {
+                    throw new IllegalArgumentException("Unable to open " + file + " as the network snapshot is truncated.");
+                }
+                sections[section] = size == 0
+                        ? ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN)
+                        : channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (!isValid(stationCount, stopCount, sections)) {
+                throw new IllegalArgumentException("Unable to open " + file + " as the network snapshot is malformed.");
+            }
+            return new NetworkSnapshot(file, flags, stationCount, stopCount, sections);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open network snapshot " + file + ".", e);
+        }
+    }
+
+    /**
+     * Represents the network graph backed by the snapshot.
+     * <p>
+     * Stations and stops are materialized from the snapshot each time they are read, and the
+     * {@link NetworkGraph#getCompiledNetworkGraph()} of the network graph is backed by the mapped rows of the snapshot.
+     *
+     * @return the network graph
+     */
+    public NetworkGraph getNetworkGraph() {
+        return networkGraph;
+    }
+
+    /**
+     * Represents the network coverage stored in the snapshot, which is read in full on first access.
+     *
+     * @return the network coverage, or empty if the snapshot was written without one
+     */
+    public Optional<NetworkCoverage<Point>> getNetworkCoverage() {
+        return networkCoverage.get();
+    }
+
+    public CompiledNetworkGraph getCompiledNetworkGraph() {
+        return compiledNetworkGraph;
+    }
+
+    Station getStation(int station) {
+        List<RouteOption> connections = new ArrayList<>(connectionOffsets.get(station + 1) - connectionOffsets.get(station));
+        for (int edge = connectionOffsets.get(station), end = connectionOffsets.get(station + 1); edge < end; ++edge) {
+            connections.add(RouteOption.of(getString(connectionIds.get(edge)), stationIds.get(connectionTargets.get(edge)), connectionFares.get(edge)));
+        }
+        List<RouteOption> destinations = new ArrayList<>(destinationOffsets.get(station + 1) - destinationOffsets.get(station));
+        for (int edge = destinationOffsets.get(station), end = destinationOffsets.get(station + 1); edge < end; ++edge) {
+            destinations.add(RouteOption.of(getString(destinationIds.get(edge)), stopIds.get(destinationTargets.get(edge)), destinationFares.get(edge)));
+        }
+        return Station.of(stationIds.get(station), connections, destinations);
+    }
+
+    Stop getStop(int stop) {
+        return Stop.of(stopIds.get(stop));
+    }
+
+    /**
+     * Resolves the stations of a network graph by their index in its compiled graph, materializing the stations of a
+     * snapshot only once they are resolved.
+     *
+     * @param networkGraph the network graph
+     * @return the station at each compiled index
+     */
+    static IntFunction<Station> stations(NetworkGraph networkGraph) {
+        if (networkGraph instanceof SnapshotNetworkGraph) {
+            return ((SnapshotNetworkGraph) networkGraph).getSnapshot()::getStation;
+        }
+        //compiled indices follow the iteration order of the graph
+        Station[] stations = networkGraph.getStations().toArray(new Station[0]);
+        return station -> stations[station];
+    }
+
+    /**
+     * Resolves the stops of a network graph by their index in its compiled graph.
+     *
+     * @param networkGraph the network graph
+     * @return the stop at each compiled index
+     */
+    static IntFunction<Stop> stops(NetworkGraph networkGraph) {
+        if (networkGraph instanceof SnapshotNetworkGraph) {
+            return ((SnapshotNetworkGraph) networkGraph).getSnapshot()::getStop;
+        }
+        Stop[] stops = networkGraph.getStops().toArray(new Stop[0]);
+        return stop -> stops[stop];
+    }
+
+    /**
+     * Resolves the station ids of a network graph by their index in its compiled graph, without compiling the graph.
+     *
+     * @param networkGraph the network graph
+     * @return the station id at each compiled index
+     */
+    static IntFunction<String> stationIds(NetworkGraph networkGraph) {
+        if (networkGraph instanceof SnapshotNetworkGraph) {
+            return ((SnapshotNetworkGraph) networkGraph).getSnapshot().stationIds::get;
+        }
+        String[] stationIds = networkGraph.getStations().stream().map(Station::getId).toArray(String[]::new);
+        return station -> stationIds[station];
+    }
+
+    /**
+     * Resolves the stop ids of a network graph by their index in its compiled graph, without compiling the graph.
+     *
+     * @param networkGraph the network graph
+     * @return the stop id at each compiled index
+     */
+    static IntFunction<String> stopIds(NetworkGraph networkGraph) {
+        if (networkGraph instanceof SnapshotNetworkGraph) {
+            return ((SnapshotNetworkGraph) networkGraph).getSnapshot().stopIds::get;
+        }
+        String[] stopIds = networkGraph.getStops().stream().map(Stop::getId).toArray(String[]::new);
+        return stop -> stopIds[stop];
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkSnapshot{file=" + file + ", stations=" + stationIds.size() + ", stops=" + stopIds.size() + "}";
+    }
+
+    private String getString(int index) {
+        int start = stringOffsets.get(index);
+        byte[] bytes = new byte[stringOffsets.get(index + 1) - start];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = strings.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes the checksum of a header, covering every field besides the checksum itself.
+     */
+    private static int checksum(ByteBuffer header) {
+        CRC32 checksum = new CRC32();
+        checksum.update(header.array(), 0, CHECKSUM_OFFSET);
+        checksum.update(header.array(), CHECKSUM_OFFSET + Integer.BYTES, HEADER_SIZE - CHECKSUM_OFFSET - Integer.BYTES);
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Checks the sections are sized for the station and stop counts of the header, without reading the rows.
+     */
+    private static boolean isValid(int stationCount, int stopCount, ByteBuffer[] sections) {
+        if (stationCount < 0 || stopCount < 0) {
+            return false;
+        }
+        //station and stop ids lead the string table
+        return ints(sections, STRING_OFFSETS) > (long) stationCount + stopCount
+                && isIndex(ints(sections, STATION_INDEX), stationCount)
+                && isIndex(ints(sections, STOP_INDEX), stopCount)
+                && isRouteOptions(sections, ROUTE_OPTIONS, stationCount)
+                && isRouteOptions(sections, DESTINATION_OPTIONS, stationCount)
+                && isRows(sections, CONNECTIONS, stationCount)
+                && isRows(sections, INCOMING, stationCount)
+                && isRows(sections, DESTINATIONS, stationCount)
+                && isRows(sections, SERVICES, stopCount)
+                && ints(sections, STATION_AREA_OFFSETS) == stationCount + 1
+                && ints(sections, STOP_AREA_OFFSETS) == stopCount + 1;
+    }
+
+    /**
+     * Checks the rows starting at the section hold an offset for each row (and one past the last), and a fare for each
+     * target.
+     */
+    private static boolean isRows(ByteBuffer[] sections, int section, int rows) {
+        return ints(sections, section) == rows + 1
+                && doubles(sections, section + 2) == ints(sections, section + 1);
+    }
+
+    /**
+     * Checks the route options starting at the section hold an offset for each row (and one past the last), and an id
+     * and fare for each target.
+     */
+    private static boolean isRouteOptions(ByteBuffer[] sections, int section, int rows) {
+        return ints(sections, section) == rows + 1
+                && ints(sections, section + 1) == ints(sections, section + 2)
+                && doubles(sections, section + 3) == ints(sections, section + 2);
+    }
+
+    /**
+     * Checks a hash table has a power of two slots, leaving room for the empty slots lookups of missing ids stop at.
+     */
+    private static boolean isIndex(int slots, int count) {
+        return slots >= 2 && Integer.bitCount(slots) == 1 && slots > count;
+    }
+
+    private static int ints(ByteBuffer[] sections, int section) {
+        return sections[section].capacity() / Integer.BYTES;
+    }
+
+    private static int doubles(ByteBuffer[] sections, int section) {
+        return sections[section].capacity() / Double.BYTES;
+    }
+
+    private static void write(NetworkGraph networkGraph, Optional<? extends NetworkCoverage<? extends Point>> networkCoverage, Path file) {
+        CompiledNetworkGraph compiledNetworkGraph = networkGraph.getCompiledNetworkGraph();
+        int stationCount = compiledNetworkGraph.getStationCount();
+        int stopCount = compiledNetworkGraph.getStopCount();
+        Object[] sections = new Object[SECTION_COUNT];
+        //station and stop ids lead the string table, so their string index is their dense index (offset by the station count for stops)
+        StringTable strings = new StringTable();
+        for (int station = 0; station < stationCount; ++station) {
+            strings.add(compiledNetworkGraph.getStationId(station));
+        }
+        for (int stop = 0; stop < stopCount; ++stop) {
+            strings.add(compiledNetworkGraph.getStopId(stop));
+        }
+        RouteOptionRows connections = new RouteOptionRows(stationCount);
+        RouteOptionRows destinations = new RouteOptionRows(stationCount);
+        int station = 0;
+        for (Station value : networkGraph.getStations()) {
+            for (RouteOption connection : value.getConnections()) {
+                connections.add(strings.intern(connection.getId()), compiledNetworkGraph.indexOfStation(connection.getDestination()), connection.getFare());
+            }
+            connections.endRow(++station);
+            for (RouteOption destination : value.getDestinations()) {
+                destinations.add(strings.intern(destination.getId()), compiledNetworkGraph.indexOfStop(destination.getDestination()), destination.getFare());
+            }
+            destinations.endRow(station);
+        }
+        sections[STRING_OFFSETS] = strings.getOffsets();
+        sections[STRINGS] = strings.getBytes();
+        sections[STATION_INDEX] = index(compiledNetworkGraph::getStationId, stationCount);
+        sections[STOP_INDEX] = index(compiledNetworkGraph::getStopId, stopCount);
+        connections.fill(sections, ROUTE_OPTIONS);
+        destinations.fill(sections, DESTINATION_OPTIONS);
+        int[] connectionOffsets = new int[stationCount + 1];
+        int[] incomingOffsets = new int[stationCount + 1];
+        int[] destinationOffsets = new int[stationCount + 1];
+        for (int i = 0; i < stationCount; ++i) {
+            connectionOffsets[i + 1] = compiledNetworkGraph.getConnectionEnd(i);
+            incomingOffsets[i + 1] = compiledNetworkGraph.getIncomingEnd(i);
+            destinationOffsets[i + 1] = compiledNetworkGraph.getDestinationEnd(i);
+        }
+        int[] serviceOffsets = new int[stopCount + 1];
+        for (int i = 0; i < stopCount; ++i) {
+            serviceOffsets[i + 1] = compiledNetworkGraph.getServiceEnd(i);
+        }
+        fill(sections, CONNECTIONS, connectionOffsets, compiledNetworkGraph::getConnectionTarget, compiledNetworkGraph::getConnectionFare);
+        fill(sections, INCOMING, incomingOffsets, compiledNetworkGraph::getIncomingSource, compiledNetworkGraph::getIncomingFare);
+        fill(sections, DESTINATIONS, destinationOffsets, compiledNetworkGraph::getDestinationTarget, compiledNetworkGraph::getDestinationFare);
+        fill(sections, SERVICES, serviceOffsets, compiledNetworkGraph::getServiceStation, compiledNetworkGraph::getServiceFare);
+        Bytes areas = new Bytes();
+        int[] stationAreaOffsets = new int[stationCount + 1];
+        int[] stopAreaOffsets = new int[stopCount + 1];
+        networkCoverage.ifPresent(coverage -> {
+            writeServiceAreas(coverage.getStationServiceAreas(), compiledNetworkGraph::getStationId, stationAreaOffsets, areas);
+            writeServiceAreas(coverage.getStopServiceAreas(), compiledNetworkGraph::getStopId, stopAreaOffsets, areas);
+        });
+        sections[STATION_AREA_OFFSETS] = stationAreaOffsets;
+        sections[STOP_AREA_OFFSETS] = stopAreaOffsets;
+        sections[AREAS] = areas.toBuffer();
+        try {
+            write(file, networkCoverage.isPresent() ? FLAG_COVERAGE : 0, stationCount, stopCount, sections);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write network snapshot " + file + ".", e);
+        }
+    }
+
+    private static void write(Path file, int flags, int stationCount, int stopCount, Object[] sections) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(stationCount).putInt(stopCount).putInt(0);
+                //sections are aligned to 8 bytes, so every mapped int and double is naturally aligned
+                long position = HEADER_SIZE;
+                for (Object section : sections) {
+                    position = (position + 7) & ~7L;
+                    long size = size(section);
+                    header.putLong(position).putLong(size);
+                    writeSection(channel, position, section);
+                    position += size;
+                }
+                //pads the file to the end of the last section, which may be empty
+                writeFully(channel, ByteBuffer.allocate((int) (position - Math.min(position, channel.size()))), channel.size());
+                header.putInt(CHECKSUM_OFFSET, checksum(header));
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            //readers only ever observe a complete snapshot file
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static long size(Object section) {
+        if (section instanceof int[]) {
+            return (long) ((int[]) section).length * Integer.BYTES;
+        }
+        if (section instanceof double[]) {
+            return (long) ((double[]) section).length * Double.BYTES;
+        }
+        return ((ByteBuffer) section).remaining();
+    }
+
+    private static void writeSection(FileChannel channel, long position, Object section) throws IOException {
+        //large sections are written through a bounded buffer rather than copied in full
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        if (section instanceof int[]) {
+            int[] values = (int[]) section;
+            for (int offset = 0; offset < values.length; offset += buffer.capacity() / Integer.BYTES) {
+                buffer.clear();
+                int length = Math.min(values.length - offset, buffer.capacity() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.limit(length * Integer.BYTES);
+                position += writeFully(channel, buffer, position);
+            }
+        } else if (section instanceof double[]) {
+            double[] values = (double[]) section;
+            for (int offset = 0; offset < values.length; offset += buffer.capacity() / Double.BYTES) {
+                buffer.clear();
+                int length = Math.min(values.length - offset, buffer.capacity() / Double.BYTES);
+                buffer.asDoubleBuffer().put(values, offset, length);
+                buffer.limit(length * Double.BYTES);
+                position += writeFully(channel, buffer, position);
+            }
+        } else {
+            writeFully(channel, ((ByteBuffer) section).duplicate(), position);
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static void fill(Object[] sections, int section, int[] offsets, IntUnaryOperator targets, IntToDoubleFunction fares) {
+        int edges = offsets[offsets.length - 1];
+        int[] rowTargets = new int[edges];
+        double[] rowFares = new double[edges];
+        for (int edge = 0; edge < edges; ++edge) {
+            rowTargets[edge] = targets.applyAsInt(edge);
+            rowFares[edge] = fares.applyAsDouble(edge);
+        }
+        sections[section] = offsets;
+        sections[section + 1] = rowTargets;
+        sections[section + 2] = rowFares;
+    }
+
+    /**
+     * Builds an open-addressing hash table of the ids, holding {@code index + 1} in the slot of each id (and
+     * {@code 0} in empty slots).
+     */
+    private static int[] index(IntFunction<String> ids, int count) {
+        int capacity = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        int[] slots = new int[capacity];
+        for (int i = 0; i < count; ++i) {
+            int slot = hash(ids.apply(i)) & (capacity - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots[slot] = i + 1;
+        }
+        return slots;
+    }
+
+    private static int hash(String id) {
+        int hash = id.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void writeServiceAreas(Map<String, ? extends ServiceArea<?>> serviceAreas, IntFunction<String> ids, int[] offsets, Bytes areas) {
+        offsets[0] = areas.size();
+        for (int i = 0; i < offsets.length - 1; ++i) {
+            ServiceArea<?> serviceArea = serviceAreas.get(ids.apply(i));
+            if (serviceArea != null) {
+                writeServiceArea(serviceArea, areas);
+            }
+            offsets[i + 1] = areas.size();
+        }
+    }
+
+    private static void writeServiceArea(ServiceArea<?> serviceArea, Bytes areas) {
+        if (serviceArea instanceof ServiceArea.Global) {
+            areas.put(GLOBAL);
+        } else if (serviceArea instanceof ServiceArea.Empty) {
+            areas.put(EMPTY);
+        } else if (serviceArea instanceof ServiceArea.Outside) {
+            areas.put(OUTSIDE);
+            writeServiceArea(((ServiceArea.Outside<?>) serviceArea).getServiceArea(), areas);
+        } else if (serviceArea instanceof ServiceArea.Intersection) {
+            Set<? extends ServiceArea<?>> serviceAreas = ((ServiceArea.Intersection<?>) serviceArea).getServiceAreas();
+            areas.put(INTERSECTION).putInt(serviceAreas.size());
+            serviceAreas.forEach(child -> writeServiceArea(child, areas));
+        } else if (serviceArea instanceof ServiceArea.Union) {
+            Set<? extends ServiceArea<?>> serviceAreas = ((ServiceArea.Union<?>) serviceArea).getServiceAreas();
+            areas.put(UNION).putInt(serviceAreas.size());
+            serviceAreas.forEach(child -> writeServiceArea(child, areas));
+        } else if (serviceArea instanceof ServiceArea.Circle) {
+            ServiceArea.Circle<?> circle = (ServiceArea.Circle<?>) serviceArea;
+            areas.put(CIRCLE).putDouble(circle.getCenter().getX()).putDouble(circle.getCenter().getY()).putDouble(circle.getRadius());
+        } else if (serviceArea instanceof ServiceArea.Box) {
+            Bounds box = ((ServiceArea.Box<?>) serviceArea).getBox();
+            areas.put(BOX).putDouble(box.getMinimumX()).putDouble(box.getMinimumY()).putDouble(box.getMaximumX()).putDouble(box.getMaximumY());
+        } else if (serviceArea instanceof ServiceArea.Polygon) {
+            List<Point> vertices = ((ServiceArea.Polygon<?>) serviceArea).getVertices();
+            areas.put(POLYGON).putInt(vertices.size());
+            vertices.forEach(vertex -> areas.putDouble(vertex.getX()).putDouble(vertex.getY()));
+        } else {
+            throw new IllegalArgumentException("Unable to write " + serviceArea + " to a network snapshot as it is not a structural service area.");
+        }
+    }
+
+    private NetworkCoverage<Point> readNetworkCoverage(IntBuffer stationAreaOffsets, IntBuffer stopAreaOffsets, ByteBuffer areas) {
+        NetworkCoverage.Builder<Point> builder = NetworkCoverage.builder();
+        for (int station = 0; station < stationIds.size(); ++station) {
+            if (stationAreaOffsets.get(station + 1) > stationAreaOffsets.get(station)) {
+                ByteBuffer area = areas.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                area.position(stationAreaOffsets.get(station));
+                builder.putStationServiceArea(stationIds.get(station), readServiceArea(area));
+            }
+        }
+        for (int stop = 0; stop < stopIds.size(); ++stop) {
+            if (stopAreaOffsets.get(stop + 1) > stopAreaOffsets.get(stop)) {
+                ByteBuffer area = areas.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                area.position(stopAreaOffsets.get(stop));
+                builder.putStopServiceArea(stopIds.get(stop), readServiceArea(area));
+            }
+        }
+        return builder.build();
+    }
+
+    private static ServiceArea<Point> readServiceArea(ByteBuffer area) {
+        byte type = area.get();
+        switch (type) {
+            case GLOBAL:
+                return ServiceArea.global();
+            case EMPTY:
+                return ServiceArea.empty();
+            case OUTSIDE:
+                return ServiceArea.outside(readServiceArea(area));
+            case INTERSECTION:
+            case UNION: {
+                List<ServiceArea<Point>> serviceAreas = new ArrayList<>();
+                for (int i = area.getInt(); i > 0; --i) {
+                    serviceAreas.add(readServiceArea(area));
+                }
+                return type == INTERSECTION ? ServiceArea.intersection(serviceAreas) : ServiceArea.union(serviceAreas);
+            }
+            case CIRCLE:
+                return ServiceArea.circle(Point.of(area.getDouble(), area.getDouble()), area.getDouble());
+            case BOX:
+                return ServiceArea.box(Bounds.of(area.getDouble(), area.getDouble(), area.getDouble(), area.getDouble()));
+            case POLYGON: {
+                List<Point> vertices = new ArrayList<>();
+                for (int i = area.getInt(); i > 0; --i) {
+                    vertices.add(Point.of(area.getDouble(), area.getDouble()));
+                }
+                return ServiceArea.polygon(vertices);
+            }
+            default:
+                throw new IllegalStateException("Unable to read service area of unknown type " + type + ".");
+        }
+    }
+
+    /**
+     * The station (or stop) ids of a snapshot, read from the string table and looked up through the hash table
+     * stored in the snapshot.
+     */
+    private final class MappedIds implements NetworkIds {
+        private final int first;
+        private final int count;
+        private final IntBuffer slots;
+
+        private MappedIds(int first, int count, IntBuffer slots) {
+            this.first = first;
+            this.count = count;
+            this.slots = slots;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public String get(int index) {
+            return getString(first + index);
+        }
+
+        @Override
+        public int indexOf(String id) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            int mask = slots.capacity() - 1;
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                int value = slots.get(slot);
+                if (value == 0) {
+                    return -1;
+                }
+                if (matches(first + value - 1, bytes)) {
+                    return value - 1;
+                }
+            }
+        }
+
+        private boolean matches(int index, byte[] bytes) {
+            int start = stringOffsets.get(index);
+            if (stringOffsets.get(index + 1) - start != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; ++i) {
+                if (strings.get(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A {@link NetworkGraph} which materializes its stations and stops from a snapshot as they are read.
+     */
+    static final class SnapshotNetworkGraph implements NetworkGraph {
+        private final NetworkSnapshot snapshot;
+
+        private SnapshotNetworkGraph(NetworkSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        NetworkSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        @Override
+        public Set<Station> getStations() {
+            return new IndexedSet<>(snapshot.stationIds, snapshot::getStation);
+        }
+
+        @Override
+        public Set<Stop> getStops() {
+            return new IndexedSet<>(snapshot.stopIds, snapshot::getStop);
+        }
+
+        @Override
+        public CompiledNetworkGraph getCompiledNetworkGraph() {
+            return snapshot.compiledNetworkGraph;
+        }
+
+        @Override
+        public String toString() {
+            return "NetworkGraph{snapshot=" + snapshot.file + "}";
+        }
+    }
+
+    /**
+     * A {@link CompiledNetworkGraph} whose rows are read directly from the mapped sections of a snapshot.
+     */
+    private static final class MappedNetworkGraph extends CompiledNetworkGraph {
+        private final IntBuffer connectionOffsets;
+        private final IntBuffer connectionTargets;
+        private final DoubleBuffer connectionFares;
+        private final IntBuffer incomingOffsets;
+        private final IntBuffer incomingSources;
+        private final DoubleBuffer incomingFares;
+        private final IntBuffer destinationOffsets;
+        private final IntBuffer destinationTargets;
+        private final DoubleBuffer destinationFares;
+        private final IntBuffer serviceOffsets;
+        private final IntBuffer serviceStations;
+        private final DoubleBuffer serviceFares;
+
+        private MappedNetworkGraph(NetworkIds stationIds, NetworkIds stopIds, ByteBuffer[] sections) {
+            super(stationIds, stopIds);
+            this.connectionOffsets = sections[CONNECTIONS].asIntBuffer();
+            this.connectionTargets = sections[CONNECTIONS + 1].asIntBuffer();
+            this.connectionFares = sections[CONNECTIONS + 2].asDoubleBuffer();
+            this.incomingOffsets = sections[INCOMING].asIntBuffer();
+            this.incomingSources = sections[INCOMING + 1].asIntBuffer();
+            this.incomingFares = sections[INCOMING + 2].asDoubleBuffer();
+            this.destinationOffsets = sections[DESTINATIONS].asIntBuffer();
+            this.destinationTargets = sections[DESTINATIONS + 1].asIntBuffer();
+            this.destinationFares = sections[DESTINATIONS + 2].asDoubleBuffer();
+            this.serviceOffsets = sections[SERVICES].asIntBuffer();
+            this.serviceStations = sections[SERVICES + 1].asIntBuffer();
+            this.serviceFares = sections[SERVICES + 2].asDoubleBuffer();
+        }
+
+        @Override
+        public int getConnectionStart(int station) {
+            return connectionOffsets.get(station);
+        }
+
+        @Override
+        public int getConnectionEnd(int station) {
+            return connectionOffsets.get(station + 1);
+        }
+
+        @Override
+        public int getConnectionTarget(int edge) {
+            return connectionTargets.get(edge);
+        }
+
+        @Override
+        public double getConnectionFare(int edge) {
+            return connectionFares.get(edge);
+        }
+
+        @Override
+        public int getConnectionCount() {
+            return connectionTargets.capacity();
+        }
+
+        @Override
+        public double getConnectionFare(int station, int target) {
+            int edge = binarySearch(connectionTargets, connectionOffsets.get(station), connectionOffsets.get(station + 1), target);
+            return edge < 0 ? Double.NaN : connectionFares.get(edge);
+        }
+
+        @Override
+        public int getIncomingStart(int station) {
+            return incomingOffsets.get(station);
+        }
+
+        @Override
+        public int getIncomingEnd(int station) {
+            return incomingOffsets.get(station + 1);
+        }
+
+        @Override
+        public int getIncomingSource(int edge) {
+            return incomingSources.get(edge);
+        }
+
+        @Override
+        public double getIncomingFare(int edge) {
+            return incomingFares.get(edge);
+        }
+
+        @Override
+        public int getDestinationStart(int station) {
+            return destinationOffsets.get(station);
+        }
+
+        @Override
+        public int getDestinationEnd(int station) {
+            return destinationOffsets.get(station + 1);
+        }
+
+        @Override
+        public int getDestinationTarget(int edge) {
+            return destinationTargets.get(edge);
+        }
+
+        @Override
+        public double getDestinationFare(int edge) {
+            return destinationFares.get(edge);
+        }
+
+        @Override
+        public int getDestinationCount() {
+            return destinationTargets.capacity();
+        }
+
+        @Override
+        public double getDestinationFare(int station, int stop) {
+            int edge = binarySearch(destinationTargets, destinationOffsets.get(station), destinationOffsets.get(station + 1), stop);
+            return edge < 0 ? Double.NaN : destinationFares.get(edge);
+        }
+
+        @Override
+        public int getServiceStart(int stop) {
+            return serviceOffsets.get(stop);
+        }
+
+        @Override
+        public int getServiceEnd(int stop) {
+            return serviceOffsets.get(stop + 1);
+        }
+
+        @Override
+        public int getServiceStation(int edge) {
+            return serviceStations.get(edge);
+        }
+
+        @Override
+        public double getServiceFare(int edge) {
+            return serviceFares.get(edge);
+        }
+
+        private static int binarySearch(IntBuffer targets, int from, int to, int key) {
+            int low = from;
+            int high = to - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int target = targets.get(middle);
+                if (target < key) {
+                    low = middle + 1;
+                } else if (target > key) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private static final class IndexedSet<T extends NetworkNode> extends AbstractSet<T> {
+        private final NetworkIds ids;
+        private final IntFunction<T> values;
+
+        private IndexedSet(NetworkIds ids, IntFunction<T> values) {
+            this.ids = ids;
+            this.values = values;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.size();
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return values.apply(next++);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof NetworkNode)) {
+                return false;
+            }
+            int index = ids.indexOf(((NetworkNode) o).getId());
+            return index >= 0 && values.apply(index).equals(o);
+        }
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+    }
+
+    private static final class StringTable {
+        private final Bytes bytes = new Bytes();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int[] offsets = new int[16];
+        private int size;
+
+        /**
+         * Adds the string to the table, even if it is already held, so station and stop ids keep their dense index.
+         */
+        private int add(String value) {
+            int index = append(value);
+            indices.putIfAbsent(value, index);
+            return index;
+        }
+
+        /**
+         * Adds the string to the table unless it is already held, so route option ids shared across stations are
+         * stored once.
+         */
+        private int intern(String value) {
+            Integer index = indices.get(value);
+            return index == null ? add(value) : index;
+        }
+
+        private int append(String value) {
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            bytes.put(value.getBytes(StandardCharsets.UTF_8));
+            offsets[++size] = bytes.size();
+            return size - 1;
+        }
+
+        private int[] getOffsets() {
+            return Arrays.copyOf(offsets, size + 1);
+        }
+
+        private ByteBuffer getBytes() {
+            return bytes.toBuffer();
+        }
+    }
+
+    private static final class RouteOptionRows {
+        private final int[] offsets;
+        private int[] ids = new int[16];
+        private int[] targets = new int[16];
+        private double[] fares = new double[16];
+        private int size;
+
+        private RouteOptionRows(int rows) {
+            this.offsets = new int[rows + 1];
+        }
+
+        private void add(int id, int target, double fare) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                fares = Arrays.copyOf(fares, size * 2);
+            }
+            ids[size] = id;
+            targets[size] = target;
+            fares[size] = fare;
+            ++size;
+        }
+
+        private void endRow(int row) {
+            offsets[row] = size;
+        }
+
+        private void fill(Object[] sections, int section) {
+            sections[section] = offsets;
+            sections[section + 1] = Arrays.copyOf(ids, size);
+            sections[section + 2] = Arrays.copyOf(targets, size);
+            sections[section + 3] = Arrays.copyOf(fares, size);
+        }
+    }
+
+    private static final class Bytes {
+        private ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Bytes put(byte value) {
+            ensureCapacity(1).put(value);
+            return this;
+        }
+
+        private Bytes put(byte[] values) {
+            ensureCapacity(values.length).put(values);
+            return this;
+        }
+
+        private Bytes putInt(int value) {
+            ensureCapacity(Integer.BYTES).putInt(value);
+            return this;
+        }
+
+        private Bytes putDouble(double value) {
+            ensureCapacity(Double.BYTES).putDouble(value);
+            return this;
+        }
+
+        private int size() {
+            return buffer.position();
+        }
+
+        private ByteBuffer toBuffer() {
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.flip();
+            return bytes;
+        }
+
+        private ByteBuffer ensureCapacity(int length) {
+            if (buffer.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length)).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.navigation;
+
+import io.navigation.immutables.ImmutableNavigationNetworkStyle;
+import org.immutables.gson.Gson;
+import org.immutables.value.Value.Immutable;
+
+/**
+ * A coordinate on a two-dimensional plane, which the geometric {@link ServiceArea} (and any coordinate type which
+ * implements it) are defined over.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@Immutable
+@Gson.TypeAdapters
+@ImmutableNavigationNetworkStyle
+public interface Point {
+    static Builder builder() {
+        return ImmutablePoint.builder();
+    }
+
+    static Point of(double x, double y) {
+        return ImmutablePoint.of(x, y);
+    }
+
+    double getX();
+
+    double getY();
+
+    interface Builder {
+        Builder setX(double x);
+
+        Builder setY(double y);
+
+        Point build();
+    }
+}
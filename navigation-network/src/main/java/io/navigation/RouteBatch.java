@@ -0,0 +1,67 @@
+package io.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Answers a batch of {@link RouteQuery} by grouping the queries by their station, so one
+ * {@link RouteFinder#findRoutes(Station, Set)} call answers every stop queried from the same station.
+ * <p>
+ * Queries are answered in chunks, each of which spreads its groups across the common fork/join pool. Chunks are only
+ * answered as the results are consumed, so arbitrarily large batches can be streamed through in bounded memory.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class RouteBatch {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private RouteBatch() {
+    }
+
+    /**
+     * Finds the route for each query.
+     *
+     * @param routeFinder the route finder
+     * @param queries     the queries
+     * @return the route for each query (or empty if the stop is unreachable from the station), in query order
+     */
+    static Stream<Optional<Route>> findRoutes(RouteFinder routeFinder, List<RouteQuery> queries) {
+        int chunks = (queries.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, chunks)
+                .mapToObj(chunk -> findChunk(routeFinder, queries.subList(chunk * CHUNK_SIZE, Math.min(queries.size(), (chunk + 1) * CHUNK_SIZE))))
+                .flatMap(List::stream);
+    }
+
+    private static List<Optional<Route>> findChunk(RouteFinder routeFinder, List<RouteQuery> queries) {
+        //group the query positions by station, keeping the first occurrence order of stations
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); ++i) {
+            groups.computeIfAbsent(queries.get(i).getStation().getId(), station -> new ArrayList<>()).add(i);
+        }
+        @SuppressWarnings("unchecked")
+        Optional<Route>[] results = (Optional<Route>[]) new Optional<?>[queries.size()];
+        groups.values().parallelStream().forEach(positions -> {
+            Station station = queries.get(positions.get(0)).getStation();
+            Set<Stop> stops = new HashSet<>();
+            for (int position : positions) {
+                stops.add(queries.get(position).getStop());
+            }
+            Map<String, Route> routes = new HashMap<>();
+            routeFinder.findRoutes(station, stops).forEach(route -> routes.put(route.getStop(), route));
+            for (int position : positions) {
+                results[position] = Optional.ofNullable(routes.get(queries.get(position).getStop().getId()));
+            }
+        });
+        return Arrays.asList(results);
+    }
+}
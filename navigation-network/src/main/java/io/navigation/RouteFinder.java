@@ -1,6 +1,13 @@
 package io.navigation;
 
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * @author Ian Caffey
@@ -8,4 +15,91 @@ import java.util.Optional;
  */
 public interface RouteFinder {
     Optional<Route> findRoute(Station station, Stop stop);
+
+    /**
+     * Finds the route from a station to a stop on the {@link LookupExecutors#defaultExecutor()}.
+     *
+     * @param station the station to start from
+     * @param stop    the stop to find a route to
+     * @return the future route, which is empty if the stop is unreachable
+     */
+    default CompletableFuture<Optional<Route>> findRouteAsync(Station station, Stop stop) {
+        return findRouteAsync(station, stop, LookupExecutors.defaultExecutor());
+    }
+
+    /**
+     * Finds the route from a station to a stop on the specified executor.
+     * <p>
+     * Cancelling the returned future interrupts the lookup.
+     *
+     * @param station  the station to start from
+     * @param stop     the stop to find a route to
+     * @param executor the executor to find the route on
+     * @return the future route, which is empty if the stop is unreachable
+     */
+    default CompletableFuture<Optional<Route>> findRouteAsync(Station station, Stop stop, Executor executor) {
+        return LookupExecutors.supplyAsync(() -> findRoute(station, stop), executor);
+    }
+
+    /**
+     * Finds the route from a station to a stop on the specified executor, failing with a
+     * {@link java.util.concurrent.TimeoutException} (and interrupting the lookup) if the route is not found within
+     * the deadline.
+     *
+     * @param station  the station to start from
+     * @param stop     the stop to find a route to
+     * @param executor the executor to find the route on
+     * @param deadline the maximum time to spend finding the route
+     * @return the future route, which is empty if the stop is unreachable
+     */
+    default CompletableFuture<Optional<Route>> findRouteAsync(Station station, Stop stop, Executor executor, Duration deadline) {
+        return LookupExecutors.supplyAsync(() -> findRoute(station, stop), executor, deadline);
+    }
+
+    /**
+     * Finds the routes from a station to each of the specified stops.
+     * <p>
+     * Route finders backed by a graph search should override this to answer every stop out of a single search from
+     * the station, rather than one search per stop.
+     *
+     * @param station the station to start from
+     * @param stops   the stops to find routes to
+     * @return the routes to each reachable stop
+     */
+    default Stream<Route> findRoutes(Station station, Set<Stop> stops) {
+        return stops.stream()
+                .map(stop -> findRoute(station, stop))
+                .filter(Optional::isPresent)
+                .map(Optional::get);
+    }
+
+    /**
+     * Finds the route with the minimum fare from any of the specified stations to any of the specified stops.
+     * <p>
+     * Route finders backed by a graph search should override this to seed a single search with every station, rather
+     * than searching from each station in turn.
+     *
+     * @param stations the stations to start from
+     * @param stops    the stops to find a route to
+     * @return the route with the minimum fare, or empty if none of the stops are reachable
+     */
+    default Optional<Route> findRoute(Set<Station> stations, Set<Stop> stops) {
+        return stations.stream()
+                .flatMap(station -> findRoutes(station, stops))
+                .min(Comparator.comparingDouble(route -> route.getRouteInfo().getFare()));
+    }
+
+    /**
+     * Finds the route for each of a batch of queries.
+     * <p>
+     * Queries are grouped by station so a single {@link #findRoutes(Station, Set)} answers every stop queried from the
+     * same station, with the groups spread across the common fork/join pool. Route finders are expected to be safe for
+     * concurrent use, as they are when shared by a {@link NavigationNetwork}.
+     *
+     * @param queries the queries
+     * @return the route for each query (or empty if the stop is unreachable from the station), in query order
+     */
+    default Stream<Optional<Route>> findRoutes(List<RouteQuery> queries) {
+        return RouteBatch.findRoutes(this, queries);
+    }
 }
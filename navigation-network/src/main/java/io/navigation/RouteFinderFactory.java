@@ -1,21 +1,45 @@
 package io.navigation;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.navigation.immutables.ImmutableNavigationNetworkStyle;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.immutables.value.Value.Auxiliary;
+import org.immutables.value.Value.Default;
 import org.immutables.value.Value.Enclosing;
 import org.immutables.value.Value.Immutable;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -26,7 +50,16 @@ import java.util.stream.Stream;
 @ImmutableNavigationNetworkStyle
 public interface RouteFinderFactory {
     static Cached cached(RouteFinderFactory factory, long timeToLive, TimeUnit timeUnit) {
-        return ImmutableRouteFinderFactory.Cached.of(factory, timeToLive, timeUnit);
+        return cached(factory, timeToLive, timeUnit, Cached.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    static Cached cached(RouteFinderFactory factory, long timeToLive, TimeUnit timeUnit, long maximumSize) {
+        return Cached.builder()
+                .setRouteFinderFactory(factory)
+                .setTimeToLive(timeToLive)
+                .setTimeUnit(timeUnit)
+                .setMaximumSize(maximumSize)
+                .build();
     }
 
     static Direct direct() {
@@ -37,6 +70,26 @@ public interface RouteFinderFactory {
         return ImmutableRouteFinderFactory.Dijkstra.of();
     }
 
+    static AllPairs allPairs() {
+        return ImmutableRouteFinderFactory.AllPairs.of(Optional.empty());
+    }
+
+    static AllPairs allPairs(Path tableFile) {
+        return ImmutableRouteFinderFactory.AllPairs.of(Optional.of(tableFile));
+    }
+
+    static ContractionHierarchy contractionHierarchy() {
+        return ImmutableRouteFinderFactory.ContractionHierarchy.of();
+    }
+
+    static Landmarks landmarks() {
+        return landmarks(Landmarks.DEFAULT_LANDMARK_COUNT, Landmarks.Selection.FARTHEST);
+    }
+
+    static Landmarks landmarks(int landmarkCount, Landmarks.Selection selection) {
+        return ImmutableRouteFinderFactory.Landmarks.of(landmarkCount, selection);
+    }
+
     static MinimumFare minimumFare(RouteFinderFactory... routeFinderFactories) {
         return ImmutableRouteFinderFactory.MinimumFare.of(ImmutableSet.copyOf(routeFinderFactories));
     }
@@ -61,6 +114,14 @@ public interface RouteFinderFactory {
         return ImmutableRouteFinderFactory.QuickSelect.of(routeFinderFactories);
     }
 
+    static Hedged hedged(RouteFinderFactory primary, RouteFinderFactory backup) {
+        return hedged(primary, backup, Hedged.DEFAULT_PERCENTILE);
+    }
+
+    static Hedged hedged(RouteFinderFactory primary, RouteFinderFactory backup, double percentile) {
+        return ImmutableRouteFinderFactory.Hedged.of(primary, backup, percentile);
+    }
+
     static FirstOption firstOption(RouteFinderFactory... routeFinderFactories) {
         return ImmutableRouteFinderFactory.FirstOption.of(ImmutableList.copyOf(routeFinderFactories));
     }
@@ -75,53 +136,429 @@ public interface RouteFinderFactory {
 
     RouteFinder create(NetworkGraph networkGraph);
 
+    /**
+     * Carries a route finder created by this factory over to an updated version of its network graph, such as one
+     * produced by {@link NetworkGraph#apply(NetworkDelta)}.
+     * <p>
+     * Factories which precompute shortest path data only recompute (or invalidate) the data affected by the changes
+     * to the network graph, rather than preprocessing the updated network graph from scratch. The route finder itself
+     * is left unchanged, so it can keep answering lookups until the updated route finder replaces it.
+     *
+     * @param routeFinder         the route finder created by this factory for the network graph
+     * @param networkGraph        the network graph the route finder was created for
+     * @param updatedNetworkGraph the updated network graph
+     * @return the route finder for the updated network graph
+     */
+    default RouteFinder update(RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+        return create(updatedNetworkGraph);
+    }
+
     @Immutable
     interface Cached extends RouteFinderFactory {
+        long DEFAULT_MAXIMUM_SIZE = 100_000;
+
+        static Builder builder() {
+            return ImmutableRouteFinderFactory.Cached.builder();
+        }
+
         RouteFinderFactory getRouteFinderFactory();
 
         long getTimeToLive();
 
         TimeUnit getTimeUnit();
 
+        /**
+         * Represents the maximum number of routes held by the cache, beyond which the least recently used routes are
+         * evicted.
+         *
+         * @return the maximum number of cached routes
+         */
+        @Default
+        default long getMaximumSize() {
+            return DEFAULT_MAXIMUM_SIZE;
+        }
+
+        /**
+         * Represents how long the absence of a route is cached for, in {@link #getTimeUnit()}.
+         * <p>
+         * A time to live of {@code 0} only shares the absence of a route with the callers waiting on the same lookup.
+         *
+         * @return the time to live for unreachable routes
+         */
+        @Default
+        default long getNegativeTimeToLive() {
+            return 0;
+        }
+
+        /**
+         * Represents how long after a route is cached it is recomputed in the background, in {@link #getTimeUnit()}.
+         * <p>
+         * Routes read after this point are still served from the cache while they are being recomputed. A refresh
+         * interval of {@code 0} disables refreshing ahead of expiry.
+         *
+         * @return the interval after which cached routes are refreshed
+         */
+        @Default
+        default long getRefreshAfter() {
+            return 0;
+        }
+
         @Override
         default RouteFinder create(NetworkGraph networkGraph) {
             io.navigation.RouteFinder delegate = getRouteFinderFactory().create(networkGraph);
-            return new RouteFinder(delegate, getTimeUnit().toMillis(getTimeToLive()));
+            TimeUnit timeUnit = getTimeUnit();
+            return new RouteFinder(delegate, timeUnit.toMillis(getTimeToLive()), getMaximumSize(),
+                    timeUnit.toMillis(getNegativeTimeToLive()), timeUnit.toMillis(getRefreshAfter()));
+        }
+
+        /**
+         * Updates the delegate, carrying over every cached route which is unaffected by the changes to the network
+         * graph (along with when it was cached, so it still expires on time).
+         */
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            if (!(routeFinder instanceof RouteFinder)) {
+                return create(updatedNetworkGraph);
+            }
+            RouteFinder previous = (RouteFinder) routeFinder;
+            //the differences are shared with the delegate, which looks them up while they are held here
+            CompiledNetworkDiff diff = updatedNetworkGraph.getCompiledNetworkGraph().diffFrom(networkGraph.getCompiledNetworkGraph());
+            io.navigation.RouteFinder delegate = getRouteFinderFactory().update(previous.delegate, networkGraph, updatedNetworkGraph);
+            TimeUnit timeUnit = getTimeUnit();
+            RouteFinder updated = new RouteFinder(delegate, timeUnit.toMillis(getTimeToLive()), getMaximumSize(),
+                    timeUnit.toMillis(getNegativeTimeToLive()), timeUnit.toMillis(getRefreshAfter()));
+            //the invalidated routes are reloaded once the route finder is warmed up, rather than holding up the update
+            updated.invalidatedKeys = updated.carryOver(previous, updatedNetworkGraph, diff);
+            return updated;
+        }
+
+        interface Builder {
+            Builder setRouteFinderFactory(RouteFinderFactory routeFinderFactory);
+
+            Builder setTimeToLive(long timeToLive);
+
+            Builder setTimeUnit(TimeUnit timeUnit);
+
+            Builder setMaximumSize(long maximumSize);
+
+            Builder setNegativeTimeToLive(long negativeTimeToLive);
+
+            Builder setRefreshAfter(long refreshAfter);
+
+            Cached build();
         }
 
-        @RequiredArgsConstructor
         class RouteFinder implements io.navigation.RouteFinder {
-            private final Map<CacheKey, Route> routes = new ConcurrentHashMap<>();
+            //absent routes are held alongside the routes, but expire on their own schedule once read
+            private final LoadingCache<CacheKey, CacheEntry> routes;
             private final io.navigation.RouteFinder delegate;
             private final long timeToLive;
+            private final long maximumSize;
+            private final long negativeTimeToLive;
+            //the routes invalidated when carried over from a previous version of the network graph, until warmed up
+            private volatile Set<CacheKey> invalidatedKeys;
+
+            public RouteFinder(@NonNull io.navigation.RouteFinder delegate, long timeToLive, long maximumSize) {
+                this(delegate, timeToLive, maximumSize, 0, 0);
+            }
+
+            public RouteFinder(@NonNull io.navigation.RouteFinder delegate, long timeToLive, long maximumSize,
+                               long negativeTimeToLive, long refreshAfter) {
+                //expired routes are removed during routine cache maintenance, rather than lingering until they are read again
+                CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(Math.max(timeToLive, negativeTimeToLive), TimeUnit.MILLISECONDS);
+                if (refreshAfter > 0) {
+                    cacheBuilder.refreshAfterWrite(refreshAfter, TimeUnit.MILLISECONDS);
+                }
+                //concurrent lookups of the same key wait on the single load in flight rather than each calling the delegate
+                this.routes = cacheBuilder.build(CacheLoader.asyncReloading(new RouteLoader(delegate), LookupExecutors.defaultExecutor()));
+                this.delegate = delegate;
+                this.timeToLive = timeToLive;
+                this.maximumSize = maximumSize;
+                this.negativeTimeToLive = negativeTimeToLive;
+            }
 
             @Override
             public Optional<Route> findRoute(Station station, Stop stop) {
-                long time = System.currentTimeMillis();
-                CacheKey key = CacheKey.of(station.getId(), stop.getId());
-                Route cachedRoute = routes.get(key);
-                if (cachedRoute != null && (time - cachedRoute.getRouteInfo().getCreationTime().toEpochMilli()) <= timeToLive) {
-                    return Optional.of(cachedRoute);
+                return get(CacheKey.of(station, stop)).getRoute();
+            }
+
+            @Override
+            public Stream<Route> findRoutes(Station station, Set<Stop> stops) {
+                Set<CacheKey> keys = stops.stream()
+                        .map(stop -> CacheKey.of(station, stop))
+                        .collect(ImmutableSet.toImmutableSet());
+                //resolve every missing stop out of a single delegate call
+                return getAll(keys).values().stream()
+                        .map(CacheEntry::getRoute)
+                        .filter(Optional::isPresent)
+                        .map(Optional::get);
+            }
+
+            /**
+             * Reloads the cached routes which were invalidated when this route finder was carried over from a previous
+             * version of the network graph. Route finders which were created rather than carried over first copy the
+             * cached routes of the previous version which are still valid.
+             * <p>
+             * Only the first warm up has any effect.
+             *
+             * @param previous             the route finder for the previous version of the network graph
+             * @param previousNetworkGraph the previous network graph
+             * @param networkGraph         the network graph of this route finder
+             */
+            void warm(RouteFinder previous, NetworkGraph previousNetworkGraph, NetworkGraph networkGraph) {
+                Set<CacheKey> keys;
+                synchronized (this) {
+                    keys = invalidatedKeys;
+                    if (keys == null) {
+                        keys = carryOver(previous, networkGraph,
+                                networkGraph.getCompiledNetworkGraph().diffFrom(previousNetworkGraph.getCompiledNetworkGraph()));
+                    }
+                    invalidatedKeys = Collections.emptySet();
                 }
-                Optional<Route> route = delegate.findRoute(station, stop);
-                route.ifPresent(r -> routes.put(key, r));
-                return route;
+                if (!keys.isEmpty()) {
+                    getAll(keys);
+                }
+            }
+
+            private Set<CacheKey> carryOver(RouteFinder previous, NetworkGraph networkGraph, CompiledNetworkDiff diff) {
+                CompiledNetworkGraph compiledNetworkGraph = diff.getUpdated();
+                IntFunction<Station> stations = NetworkSnapshot.stations(networkGraph);
+                IntFunction<Stop> stops = NetworkSnapshot.stops(networkGraph);
+                Set<CacheKey> invalidatedKeys = new HashSet<>();
+                BiConsumer<CacheKey, CacheEntry> carryOver = (key, entry) -> {
+                    int station = compiledNetworkGraph.indexOfStation(key.getStation());
+                    int stop = compiledNetworkGraph.indexOfStop(key.getStop());
+                    if (station < 0 || stop < 0) {
+                        return;
+                    }
+                    //keys refer to the stations and stops of the updated graph, so the previous graph is not retained
+                    CacheKey updatedKey = CacheKey.of(stations.apply(station), stops.apply(stop));
+                    Optional<Route> route = entry.getRoute();
+                    //an absent route stays absent unless something became reachable
+                    double fare = route.map(found -> found.getRouteInfo().getFare()).orElse(Double.POSITIVE_INFINITY);
+                    if (route.isPresent() && diff.worsens(route.get()) || diff.getImprovementBound(station, stop) < fare) {
+                        invalidatedKeys.add(updatedKey);
+                        return;
+                    }
+                    routes.put(updatedKey, entry);
+                };
+                previous.routes.asMap().forEach(carryOver);
+                return invalidatedKeys;
+            }
+
+            private boolean isExpired(CacheEntry entry) {
+                long age = System.currentTimeMillis() - entry.getLoadTime();
+                return age > (entry.getRoute().isPresent() ? timeToLive : negativeTimeToLive);
+            }
+
+            private CacheEntry get(CacheKey key) {
+                CacheEntry entry = routes.getIfPresent(key);
+                if (entry != null && isExpired(entry)) {
+                    //every caller which removes the expired route waits on the same reload
+                    routes.asMap().remove(key, entry);
+                }
+                try {
+                    entry = routes.getUnchecked(key);
+                } catch (UncheckedExecutionException e) {
+                    Throwables.throwIfUnchecked(e.getCause());
+                    throw e;
+                }
+                release(key, entry);
+                return entry;
+            }
+
+            private Map<CacheKey, CacheEntry> getAll(Set<CacheKey> keys) {
+                routes.getAllPresent(keys).forEach((key, entry) -> {
+                    if (isExpired(entry)) {
+                        routes.asMap().remove(key, entry);
+                    }
+                });
+                Map<CacheKey, CacheEntry> entries;
+                try {
+                    entries = routes.getAll(keys);
+                } catch (ExecutionException | UncheckedExecutionException e) {
+                    Throwables.throwIfUnchecked(e.getCause());
+                    throw new UncheckedExecutionException(e.getCause());
+                }
+                entries.forEach(this::release);
+                return entries;
+            }
+
+            /**
+             * Drops the absence of a route once it has been shared with the callers waiting on its load, unless absent
+             * routes are cached.
+             */
+            private void release(CacheKey key, CacheEntry entry) {
+                if (negativeTimeToLive == 0 && !entry.getRoute().isPresent()) {
+                    routes.asMap().remove(key, entry);
+                }
+            }
+
+            /**
+             * Represents the route finders this route finder delegates to, in the order their factories created them.
+             *
+             * @return the delegate route finders
+             */
+            List<io.navigation.RouteFinder> getRouteFinders() {
+                return Collections.singletonList(delegate);
             }
 
             @Override
             public String toString() {
-                return "Cached{delegate=" + delegate + ", ttl=" + timeToLive + "ms}";
+                return "Cached{delegate=" + delegate + ", ttl=" + timeToLive + "ms, negativeTtl=" + negativeTimeToLive
+                        + "ms, maximumSize=" + maximumSize + "}";
+            }
+
+            @RequiredArgsConstructor
+            private static class RouteLoader extends CacheLoader<CacheKey, CacheEntry> {
+                private final io.navigation.RouteFinder delegate;
+                //single and batch loads both claim their keys here, so each waits on the other rather than loading twice
+                private final ConcurrentMap<CacheKey, CompletableFuture<CacheEntry>> loads = new ConcurrentHashMap<>();
+
+                @Override
+                public CacheEntry load(CacheKey key) {
+                    CompletableFuture<CacheEntry> load = new CompletableFuture<>();
+                    CompletableFuture<CacheEntry> inFlight = loads.putIfAbsent(key, load);
+                    if (inFlight != null) {
+                        return await(inFlight);
+                    }
+                    try {
+                        CacheEntry entry = find(key);
+                        load.complete(entry);
+                        return entry;
+                    } catch (RuntimeException | Error e) {
+                        load.completeExceptionally(e);
+                        throw e;
+                    } finally {
+                        loads.remove(key, load);
+                    }
+                }
+
+                /**
+                 * Recomputes a route ahead of its expiry, replacing it even if it is no longer reachable, after which
+                 * it expires along with the other absent routes.
+                 */
+                @Override
+                public ListenableFuture<CacheEntry> reload(CacheKey key, CacheEntry entry) {
+                    return Futures.immediateFuture(find(key));
+                }
+
+                /**
+                 * Loads the routes of every key not already being loaded with a single delegate call per station, then
+                 * waits on the loads of the rest. Claimed keys are always loaded before waiting on anyone else, so
+                 * overlapping batches never wait on each other in a cycle.
+                 */
+                @Override
+                public Map<CacheKey, CacheEntry> loadAll(Iterable<? extends CacheKey> keys) {
+                    Map<CacheKey, CompletableFuture<CacheEntry>> claimed = new HashMap<>();
+                    Map<CacheKey, CompletableFuture<CacheEntry>> inFlight = new HashMap<>();
+                    Map<Station, Set<Stop>> stopsByStation = new LinkedHashMap<>();
+                    keys.forEach(key -> {
+                        CompletableFuture<CacheEntry> load = new CompletableFuture<>();
+                        CompletableFuture<CacheEntry> existing = loads.putIfAbsent(key, load);
+                        if (existing != null) {
+                            inFlight.put(key, existing);
+                            return;
+                        }
+                        claimed.put(key, load);
+                        stopsByStation.computeIfAbsent(key.getOrigin(), station -> new LinkedHashSet<>()).add(key.getDestination());
+                    });
+                    Map<CacheKey, CacheEntry> entries = new HashMap<>();
+                    try {
+                        stopsByStation.forEach((station, stops) -> {
+                            long time = System.currentTimeMillis();
+                            Map<String, Route> foundRoutes = isolated(() -> delegate.findRoutes(station, stops)
+                                    .collect(Collectors.toMap(Route::getStop, Function.identity())));
+                            stops.forEach(stop -> {
+                                CacheKey key = CacheKey.of(station, stop);
+                                CacheEntry entry = CacheEntry.of(Optional.ofNullable(foundRoutes.get(stop.getId())), time);
+                                claimed.get(key).complete(entry);
+                                entries.put(key, entry);
+                            });
+                        });
+                    } catch (RuntimeException | Error e) {
+                        claimed.values().forEach(load -> load.completeExceptionally(e));
+                        throw e;
+                    } finally {
+                        claimed.forEach(loads::remove);
+                    }
+                    inFlight.forEach((key, load) -> entries.put(key, await(load)));
+                    return entries;
+                }
+
+                private static CacheEntry await(CompletableFuture<CacheEntry> load) {
+                    try {
+                        return load.join();
+                    } catch (CompletionException e) {
+                        Throwables.throwIfUnchecked(e.getCause());
+                        throw e;
+                    }
+                }
+
+                private CacheEntry find(CacheKey key) {
+                    long time = System.currentTimeMillis();
+                    return CacheEntry.of(isolated(() -> delegate.findRoute(key.getOrigin(), key.getDestination())), time);
+                }
+
+                /**
+                 * Runs a lookup which other callers may be waiting on, so a caller cancelled while running it (such as
+                 * the losing side of a hedge) finishes the lookup for them rather than failing it for everyone. The
+                 * interrupt is restored once the lookup completes.
+                 */
+                private static <T> T isolated(Supplier<T> lookup) {
+                    boolean interrupted = false;
+                    try {
+                        while (true) {
+                            try {
+                                return lookup.get();
+                            } catch (CancellationException e) {
+                                if (!Thread.interrupted()) {
+                                    throw e;
+                                }
+                                interrupted = true;
+                            }
+                        }
+                    } finally {
+                        if (interrupted) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
             }
 
             @Immutable
             interface CacheKey {
-                static CacheKey of(String station, String stop) {
-                    return ImmutableRouteFinderFactory.CacheKey.of(station, stop);
+                static CacheKey of(Station origin, Stop destination) {
+                    return ImmutableRouteFinderFactory.CacheKey.of(origin.getId(), destination.getId(), origin, destination);
                 }
 
                 String getStation();
 
                 String getStop();
+
+                /**
+                 * Represents the station the cached route starts from, which is only retained to load the route.
+                 *
+                 * @return the origin station
+                 */
+                @Auxiliary
+                Station getOrigin();
+
+                @Auxiliary
+                Stop getDestination();
+            }
+
+            @Immutable
+            interface CacheEntry {
+                static CacheEntry of(Optional<Route> route, long loadTime) {
+                    return ImmutableRouteFinderFactory.CacheEntry.of(route, loadTime);
+                }
+
+                Optional<Route> getRoute();
+
+                long getLoadTime();
             }
         }
     }
@@ -130,47 +567,63 @@ public interface RouteFinderFactory {
     interface Direct extends RouteFinderFactory {
         @Override
         default RouteFinder create(NetworkGraph networkGraph) {
-            Map<String, Stop> stopsById = networkGraph.getStops().stream().collect(ImmutableMap.toImmutableMap(Stop::getId, Function.identity()));
-            Map<Station, Map<Stop, Set<RouteOption>>> directRouteOptions = networkGraph.getStations().stream().collect(ImmutableMap.toImmutableMap(
-                    Function.identity(),
-                    station -> station.getDestinations().stream().collect(ImmutableMap.toImmutableMap(
-                            option -> stopsById.get(option.getDestination()),
-                            ImmutableSet::of,
-                            (left, right) -> Stream.of(left, right)
-                                    .flatMap(Set::stream)
-                                    .collect(ImmutableSet.toImmutableSet())
-                    ))
-            ));
-            return new RouteFinder(directRouteOptions);
+            return new RouteFinder(networkGraph.getCompiledNetworkGraph());
         }
 
         @RequiredArgsConstructor
         class RouteFinder implements io.navigation.RouteFinder {
-            private final Map<Station, Map<Stop, Set<RouteOption>>> directRouteOptions;
+            private final CompiledNetworkGraph networkGraph;
 
             @Override
             public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
-                if (directRouteOptions.isEmpty()) {
+                if (networkGraph.getStationCount() == 0) {
                     return Optional.empty();
                 }
-                Map<Stop, Set<RouteOption>> directRoutesFromStation = directRouteOptions.get(station);
-                if (directRoutesFromStation == null) {
+                int origin = networkGraph.indexOfStation(station.getId());
+                if (origin < 0) {
                     throw new IllegalArgumentException("Unable to find direct routes from " + station.getId() + ".");
                 }
-                Set<RouteOption> directRouteOptions = directRoutesFromStation.get(stop);
-                if (directRouteOptions == null || directRouteOptions.isEmpty()) {
+                int destination = networkGraph.indexOfStop(stop.getId());
+                if (destination < 0) {
+                    return Optional.empty();
+                }
+                double fare = networkGraph.getDestinationFare(origin, destination);
+                if (Double.isNaN(fare)) {
                     return Optional.empty();
                 }
-                RouteOption shortestRouteOption = directRouteOptions.stream()
-                        .min(Comparator.comparingDouble(RouteOption::getFare))
-                        .orElseThrow(() -> new IllegalArgumentException("Unable to find valid route option out of direct routes to " + stop.getId() + "."));
                 return Optional.of(Route.builder()
-                        .setRouteInfo(RouteInfo.of(Instant.now(), shortestRouteOption.getFare()))
+                        .setRouteInfo(RouteInfo.of(Instant.now(), fare))
                         .setStation(station.getId())
                         .setStop(stop.getId())
                         .build());
             }
 
+            @Override
+            public Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+                if (networkGraph.getStationCount() == 0) {
+                    return Stream.empty();
+                }
+                int origin = networkGraph.indexOfStation(station.getId());
+                if (origin < 0) {
+                    throw new IllegalArgumentException("Unable to find direct routes from " + station.getId() + ".");
+                }
+                Instant now = Instant.now();
+                return stops.stream()
+                        .map(stop -> {
+                            int destination = networkGraph.indexOfStop(stop.getId());
+                            double fare = destination < 0 ? Double.NaN : networkGraph.getDestinationFare(origin, destination);
+                            if (Double.isNaN(fare)) {
+                                return null;
+                            }
+                            return Route.builder()
+                                    .setRouteInfo(RouteInfo.of(now, fare))
+                                    .setStation(station.getId())
+                                    .setStop(stop.getId())
+                                    .build();
+                        })
+                        .filter(Objects::nonNull);
+            }
+
             @Override
             public String toString() {
                 return "Direct";
@@ -182,96 +635,339 @@ public interface RouteFinderFactory {
     interface Dijkstra extends RouteFinderFactory {
         @Override
         default RouteFinder create(NetworkGraph networkGraph) {
-            Map<String, Station> stationsById = networkGraph.getStations().stream().collect(ImmutableMap.toImmutableMap(Station::getId, Function.identity()));
-            Map<String, Map<String, Double>> minimumCostForDirectRoutes = new HashMap<>();
-            networkGraph.getStations().forEach(station ->
-                    station.getDestinations().forEach(routeOption -> {
-                        double fare = routeOption.getFare();
-                        Map<String, Double> minimumCosts = minimumCostForDirectRoutes.computeIfAbsent(routeOption.getDestination(), stop -> new HashMap<>());
-                        Double existingMinimumCost = minimumCosts.get(station.getId());
-                        if (existingMinimumCost == null || existingMinimumCost > fare) {
-                            minimumCosts.put(station.getId(), fare);
-                        }
-                    })
-            );
-            return new RouteFinder(stationsById, minimumCostForDirectRoutes);
+            return new RouteFinder(networkGraph.getCompiledNetworkGraph());
         }
 
-        @RequiredArgsConstructor
-        class RouteFinder implements io.navigation.RouteFinder {
-            private final Map<String, Station> stationsById;
-            private final Map<String, Map<String, Double>> minimumCostForDirectRoutes;
+        class RouteFinder implements BoundedRouteFinder {
+            private final CompiledNetworkGraph networkGraph;
+            private final SearchPool<Search> searches;
+
+            public RouteFinder(@NonNull CompiledNetworkGraph networkGraph) {
+                this.networkGraph = networkGraph;
+                this.searches = new SearchPool<>(() -> new Search(networkGraph.getStationCount(), networkGraph.getStopCount()));
+            }
 
             @Override
             public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
-                if (stationsById.isEmpty()) {
+                return findRoute(station, stop, null);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop, FareBound fareBound) {
+                if (networkGraph.getStationCount() == 0) {
                     return Optional.empty();
                 }
-                Map<String, Double> directRouteCosts = minimumCostForDirectRoutes.get(stop.getId());
-                if (directRouteCosts == null) {
-                    throw new IllegalStateException("Unable to find direct route costs for " + stop.getId() + " when finding route.");
-                }
+                int origin = indexOf(station);
+                int destination = indexOf(stop);
                 //No direct route costs present, indicating the stop is not serviced by any station
-                if (directRouteCosts.isEmpty()) {
+                if (networkGraph.getServiceEnd(destination) == networkGraph.getServiceStart(destination)) {
                     return Optional.empty();
                 }
-                //Calculate all the shortest paths to other stations from the specified station
-                Set<String> visited = new HashSet<>();
-                Map<String, String> parents = new HashMap<>();
-                Map<String, Double> fares = new HashMap<>();
-                fares.put(station.getId(), 0.0);
-                Deque<Station> queue = new LinkedList<>();
-                queue.push(station);
-                while (!queue.isEmpty()) {
-                    Station current = queue.removeFirst();
-                    Double currentFare = fares.get(current.getId());
-                    if (currentFare == null) {
-                        throw new IllegalStateException("Unable to find fare for " + current.getId() + " when finding a route.");
-                    }
-                    current.getConnections().forEach(connection -> {
-                        Station connectingStation = stationsById.get(connection.getDestination());
-                        if (connectingStation == null) {
-                            throw new IllegalStateException("Found connection for " + station.getId() + " that leads outside the network.");
+                Search search = searches.borrow();
+                try {
+                    search.search(new int[]{origin}, new int[]{destination}, false, fareBound);
+                    return search.route(0);
+                } finally {
+                    search.reset();
+                    searches.release(search);
+                }
+            }
+
+            @Override
+            public Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+                if (networkGraph.getStationCount() == 0 || stops.isEmpty()) {
+                    return Stream.empty();
+                }
+                int origin = indexOf(station);
+                int[] destinations = stops.stream()
+                        .mapToInt(this::indexOf)
+                        //stops not serviced by any station can never be reached
+                        .filter(destination -> networkGraph.getServiceEnd(destination) > networkGraph.getServiceStart(destination))
+                        .toArray();
+                if (destinations.length == 0) {
+                    return Stream.empty();
+                }
+                Search search = searches.borrow();
+                try {
+                    search.search(new int[]{origin}, destinations, false, null);
+                    //routes are traced before the search state is reset for the next query
+                    return search.routes().collect(Collectors.toList()).stream();
+                } finally {
+                    search.reset();
+                    searches.release(search);
+                }
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops) {
+                return findRoute(stations, stops, null);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops, FareBound fareBound) {
+                if (networkGraph.getStationCount() == 0 || stations.isEmpty() || stops.isEmpty()) {
+                    return Optional.empty();
+                }
+                int[] origins = stations.stream().mapToInt(this::indexOf).toArray();
+                int[] destinations = stops.stream()
+                        .mapToInt(this::indexOf)
+                        //stops not serviced by any station can never be reached
+                        .filter(destination -> networkGraph.getServiceEnd(destination) > networkGraph.getServiceStart(destination))
+                        .toArray();
+                if (destinations.length == 0) {
+                    return Optional.empty();
+                }
+                Search search = searches.borrow();
+                try {
+                    //seed every origin at a fare of 0 (acting as a virtual source) and stop at the first destination settled
+                    search.search(origins, destinations, true, fareBound);
+                    return search.routes().min(Comparator.comparingDouble(route -> route.getRouteInfo().getFare()));
+                } finally {
+                    search.reset();
+                    searches.release(search);
+                }
+            }
+
+            private int indexOf(Station station) {
+                int index = networkGraph.indexOfStation(station.getId());
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unable to find " + station.getId() + " in the network.");
+                }
+                return index;
+            }
+
+            private int indexOf(Stop stop) {
+                int index = networkGraph.indexOfStop(stop.getId());
+                if (index < 0) {
+                    throw new IllegalStateException("Unable to find direct route costs for " + stop.getId() + " when finding route.");
+                }
+                return index;
+            }
+
+            @Override
+            public String toString() {
+                return "Dijkstra";
+            }
+
+            private final class Search {
+                private final double[] fares;
+                private final int[] parents;
+                private final FareHeap heap;
+                private final int[] touched;
+                private final int[] slots;
+                private int touchedSize;
+                private int[] destinations;
+                private int[] minimumLastLegs;
+                private double[] minimumFares;
+
+                private Search(int stationCount, int stopCount) {
+                    this.fares = new double[stationCount];
+                    this.parents = new int[stationCount];
+                    this.heap = new FareHeap(stationCount);
+                    this.touched = new int[stationCount];
+                    this.slots = new int[stopCount];
+                    Arrays.fill(fares, Double.POSITIVE_INFINITY);
+                    Arrays.fill(parents, -1);
+                    Arrays.fill(slots, -1);
+                }
+
+                /**
+                 * Settles stations in fare order from the origins until every station servicing the destinations is
+                 * settled or can no longer improve the route to the destinations (to all of them, or to any of them if
+                 * {@code anyDestination} is set), or to a single destination for less than the fare bound.
+                 */
+                private void search(int[] origins, int[] destinations, boolean anyDestination, FareBound fareBound) {
+                    this.destinations = destinations;
+                    this.minimumLastLegs = new int[destinations.length];
+                    this.minimumFares = new double[destinations.length];
+                    Arrays.fill(minimumLastLegs, -1);
+                    Arrays.fill(minimumFares, Double.POSITIVE_INFINITY);
+                    int remainingLastLegs = 0;
+                    for (int i = 0; i < destinations.length; ++i) {
+                        int destination = destinations[i];
+                        slots[destination] = i;
+                        remainingLastLegs += networkGraph.getServiceEnd(destination) - networkGraph.getServiceStart(destination);
+                    }
+                    //the highest (or lowest, for any destination) of the best fares to each destination, which bounds the labels that are still useful
+                    double maximumFare = Double.POSITIVE_INFINITY;
+                    for (int origin : origins) {
+                        if (fares[origin] == Double.POSITIVE_INFINITY) {
+                            touched[touchedSize++] = origin;
                         }
-                        double newFareToConnection = currentFare + connection.getFare();
-                        Double previousFareToConnection = fares.get(connectingStation.getId());
-                        if (previousFareToConnection == null || previousFareToConnection > newFareToConnection) {
-                            fares.put(connectingStation.getId(), newFareToConnection);
-                            parents.put(connectingStation.getId(), current.getId());
+                        fares[origin] = 0.0;
+                        heap.offer(origin, 0.0);
+                    }
+                    //a shared bound can only prune searches answering a single route
+                    FareBound sharedBound = anyDestination || destinations.length == 1 ? fareBound : null;
+                    while (!heap.isEmpty() && heap.peekFare() < maximumFare) {
+                        LookupExecutors.checkInterrupted();
+                        if (sharedBound != null && heap.peekFare() >= sharedBound.get()) {
+                            //routes found which cost more than the bound may not be the minimum, so they are dropped
+                            double bound = sharedBound.get();
+                            for (int i = 0; i < destinations.length; ++i) {
+                                if (minimumFares[i] > bound) {
+                                    minimumLastLegs[i] = -1;
+                                }
+                            }
+                            break;
                         }
-                        //only add the destination to be processed if it hasn't been seen yet
-                        if (visited.contains(connection.getDestination())) {
-                            return;
+                        int current = heap.poll();
+                        double currentFare = fares[current];
+                        //Calculate the true minimum routes which take into account the cost of the last leg (station -> stop)
+                        boolean improved = false;
+                        for (int edge = networkGraph.getDestinationStart(current), end = networkGraph.getDestinationEnd(current); edge < end; ++edge) {
+                            int i = slots[networkGraph.getDestinationTarget(edge)];
+                            if (i < 0) {
+                                continue;
+                            }
+                            double costToStop = currentFare + networkGraph.getDestinationFare(edge);
+                            if (costToStop < minimumFares[i]) {
+                                minimumLastLegs[i] = current;
+                                minimumFares[i] = costToStop;
+                                improved = true;
+                                if (sharedBound != null) {
+                                    sharedBound.offer(costToStop);
+                                }
+                            }
+                            --remainingLastLegs;
+                        }
+                        if (remainingLastLegs == 0) {
+                            break;
+                        }
+                        if (improved) {
+                            maximumFare = anyDestination
+                                    ? Arrays.stream(minimumFares).min().orElse(Double.POSITIVE_INFINITY)
+                                    : Arrays.stream(minimumFares).max().orElse(Double.POSITIVE_INFINITY);
+                        }
+                        for (int edge = networkGraph.getConnectionStart(current), end = networkGraph.getConnectionEnd(current); edge < end; ++edge) {
+                            int connectingStation = networkGraph.getConnectionTarget(edge);
+                            double newFareToConnection = currentFare + networkGraph.getConnectionFare(edge);
+                            if (newFareToConnection < fares[connectingStation]) {
+                                if (fares[connectingStation] == Double.POSITIVE_INFINITY) {
+                                    touched[touchedSize++] = connectingStation;
+                                }
+                                fares[connectingStation] = newFareToConnection;
+                                parents[connectingStation] = current;
+                                heap.offer(connectingStation, newFareToConnection);
+                            }
                         }
-                        queue.push(connectingStation);
-                    });
-                    visited.add(current.getId());
-                }
-                //Calculate the true minimum route which takes into account the cost of the last leg (station -> stop)
-                AtomicReference<String> minimumLastLeg = new AtomicReference<>();
-                AtomicReference<Double> minimumFare = new AtomicReference<>(Double.MAX_VALUE);
-                directRouteCosts.forEach((parent, cost) -> {
-                    Double fareToParent = fares.get(parent);
-                    if (fareToParent == null) {
-                        throw new IllegalArgumentException("Unable to find the minimum fare to " + parent + ".");
-                    }
-                    Double existingMinimum = minimumFare.get();
-                    double costToStop = fareToParent + cost;
-                    if (existingMinimum == null || existingMinimum > costToStop) {
-                        minimumLastLeg.set(parent);
-                        minimumFare.set(costToStop);
                     }
-                });
+                }
+
+                private Stream<Route> routes() {
+                    return IntStream.range(0, destinations.length)
+                            .mapToObj(this::route)
+                            .filter(Optional::isPresent)
+                            .map(Optional::get);
+                }
+
+                private Optional<Route> route(int destination) {
+                    int minimumLastLeg = minimumLastLegs[destination];
+                    //None of the stations servicing the stop are reachable from the origins
+                    if (minimumLastLeg < 0) {
+                        return Optional.empty();
+                    }
+                    //Add the connections in reverse order (we trace the shortest path back by each leg from the last station to its origin)
+                    List<String> inverseConnections = new ArrayList<>();
+                    int origin = minimumLastLeg;
+                    while (parents[origin] >= 0) {
+                        inverseConnections.add(networkGraph.getStationId(origin));
+                        origin = parents[origin];
+                    }
+                    Route.Builder builder = Route.builder()
+                            .setRouteInfo(RouteInfo.of(Instant.now(), minimumFares[destination]))
+                            .setStation(networkGraph.getStationId(origin))
+                            .setStop(networkGraph.getStopId(destinations[destination]));
+                    for (int i = inverseConnections.size() - 1; i >= 0; --i) {
+                        builder.addConnection(inverseConnections.get(i));
+                    }
+                    return Optional.of(builder.build());
+                }
+
+                private void reset() {
+                    for (int i = 0; i < touchedSize; ++i) {
+                        fares[touched[i]] = Double.POSITIVE_INFINITY;
+                        parents[touched[i]] = -1;
+                    }
+                    touchedSize = 0;
+                    heap.clear();
+                    if (destinations != null) {
+                        for (int destination : destinations) {
+                            slots[destination] = -1;
+                        }
+                    }
+                    destinations = null;
+                    minimumLastLegs = null;
+                    minimumFares = null;
+                }
+            }
+        }
+    }
+
+    @Immutable
+    interface AllPairs extends RouteFinderFactory {
+        /**
+         * Represents the file the fare tables are memory-mapped from.
+         * <p>
+         * The tables are computed and written to the file when it is missing or was written for a different network
+         * graph, so later route finders created for the same network graph reuse them instead of recomputing them.
+         *
+         * @return the table file backing the fare tables
+         */
+        Optional<Path> getTableFile();
+
+        @Override
+        default RouteFinder create(NetworkGraph networkGraph) {
+            CompiledNetworkGraph compiledNetworkGraph = networkGraph.getCompiledNetworkGraph();
+            FareTable fareTable = getTableFile()
+                    .map(tableFile -> FareTable.load(compiledNetworkGraph, tableFile))
+                    .orElseGet(() -> FareTable.compute(compiledNetworkGraph));
+            return new RouteFinder(compiledNetworkGraph, fareTable);
+        }
+
+        /**
+         * Recomputes the shortest path trees of the stations whose routes are affected by the changes to the network
+         * graph, writing the updated tables to the table file (if any).
+         */
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            CompiledNetworkGraph compiledNetworkGraph = updatedNetworkGraph.getCompiledNetworkGraph();
+            CompiledNetworkDiff diff = compiledNetworkGraph.diffFrom(networkGraph.getCompiledNetworkGraph());
+            //the tables are indexed by station and stop, so adding or removing either requires new tables
+            if (!(routeFinder instanceof RouteFinder) || diff.isStructural()) {
+                return create(updatedNetworkGraph);
+            }
+            FareTable fareTable = ((RouteFinder) routeFinder).fareTable.update(compiledNetworkGraph, diff);
+            getTableFile().ifPresent(tableFile -> fareTable.save(compiledNetworkGraph, tableFile));
+            return new RouteFinder(compiledNetworkGraph, fareTable);
+        }
+
+        @RequiredArgsConstructor
+        class RouteFinder implements io.navigation.RouteFinder {
+            private final CompiledNetworkGraph networkGraph;
+            private final FareTable fareTable;
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                int origin = networkGraph.indexOfStation(station.getId());
+                if (origin < 0) {
+                    throw new IllegalArgumentException("Unable to find " + station.getId() + " in the network.");
+                }
+                int destination = networkGraph.indexOfStop(stop.getId());
+                if (destination < 0) {
+                    throw new IllegalStateException("Unable to find direct route costs for " + stop.getId() + " when finding route.");
+                }
+                double fare = fareTable.getFare(origin, destination);
+                if (fare == Double.POSITIVE_INFINITY) {
+                    return Optional.empty();
+                }
                 //Add the connections in reverse order (we trace the shortest path back by each leg from the last station)
                 List<String> inverseConnections = new ArrayList<>();
-                String currentLeg = minimumLastLeg.get();
-                while (currentLeg != null && !currentLeg.equals(station.getId())) {
-                    inverseConnections.add(currentLeg);
-                    currentLeg = parents.get(currentLeg);
+                for (int currentLeg = fareTable.getLastLeg(origin, destination); currentLeg != origin; currentLeg = fareTable.getParent(origin, currentLeg)) {
+                    inverseConnections.add(networkGraph.getStationId(currentLeg));
                 }
-                double routeCost = minimumFare.get();
                 Route.Builder builder = Route.builder()
-                        .setRouteInfo(RouteInfo.of(Instant.now(), routeCost))
+                        .setRouteInfo(RouteInfo.of(Instant.now(), fare))
                         .setStation(station.getId())
                         .setStop(stop.getId());
                 for (int i = inverseConnections.size() - 1; i >= 0; --i) {
@@ -282,7 +978,394 @@ public interface RouteFinderFactory {
 
             @Override
             public String toString() {
-                return "Dijkstra";
+                return "AllPairs";
+            }
+        }
+    }
+
+    @Immutable
+    interface ContractionHierarchy extends RouteFinderFactory {
+        @Override
+        default RouteFinder create(NetworkGraph networkGraph) {
+            return new RouteFinder(ContractedNetworkGraph.contract(networkGraph.getCompiledNetworkGraph()));
+        }
+
+        /**
+         * Contracts the updated network graph in the contraction order of the previous hierarchy.
+         */
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            CompiledNetworkGraph compiledNetworkGraph = updatedNetworkGraph.getCompiledNetworkGraph();
+            if (!(routeFinder instanceof RouteFinder)
+                    || compiledNetworkGraph.diffFrom(networkGraph.getCompiledNetworkGraph()).isStructural()) {
+                return create(updatedNetworkGraph);
+            }
+            return new RouteFinder(ContractedNetworkGraph.contract(compiledNetworkGraph, ((RouteFinder) routeFinder).contractedNetworkGraph));
+        }
+
+        class RouteFinder implements BoundedRouteFinder {
+            private final ContractedNetworkGraph contractedNetworkGraph;
+            //search state is pooled, as allocating it dominates the cost of a query in the hierarchy
+            private final SearchPool<Search> searches;
+
+            public RouteFinder(@NonNull ContractedNetworkGraph contractedNetworkGraph) {
+                this.contractedNetworkGraph = contractedNetworkGraph;
+                this.searches = new SearchPool<>(() -> new Search(contractedNetworkGraph.getNetworkGraph().getStationCount()));
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                return findRoute(station, stop, null);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop, FareBound fareBound) {
+                CompiledNetworkGraph networkGraph = contractedNetworkGraph.getNetworkGraph();
+                if (networkGraph.getStationCount() == 0) {
+                    return Optional.empty();
+                }
+                int origin = networkGraph.indexOfStation(station.getId());
+                if (origin < 0) {
+                    throw new IllegalArgumentException("Unable to find " + station.getId() + " in the network.");
+                }
+                int destination = networkGraph.indexOfStop(stop.getId());
+                if (destination < 0) {
+                    throw new IllegalStateException("Unable to find direct route costs for " + stop.getId() + " when finding route.");
+                }
+                Search search = searches.borrow();
+                try {
+                    return search.findRoute(origin, destination, fareBound).map(connections -> Route.builder()
+                            .setRouteInfo(RouteInfo.of(Instant.now(), search.minimumFare))
+                            .setStation(station.getId())
+                            .setConnections(connections)
+                            .setStop(stop.getId())
+                            .build());
+                } finally {
+                    search.reset();
+                    searches.release(search);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "ContractionHierarchy";
+            }
+
+            private final class Search {
+                private final double[] forwardFares;
+                private final double[] backwardFares;
+                private final int[] forwardParents;
+                private final int[] backwardParents;
+                private final FareHeap forward;
+                private final FareHeap backward;
+                private final int[] touched;
+                private int touchedSize;
+                private double minimumFare;
+
+                private Search(int stationCount) {
+                    this.forwardFares = new double[stationCount];
+                    this.backwardFares = new double[stationCount];
+                    this.forwardParents = new int[stationCount];
+                    this.backwardParents = new int[stationCount];
+                    this.forward = new FareHeap(stationCount);
+                    this.backward = new FareHeap(stationCount);
+                    this.touched = new int[stationCount];
+                    Arrays.fill(forwardFares, Double.POSITIVE_INFINITY);
+                    Arrays.fill(backwardFares, Double.POSITIVE_INFINITY);
+                    Arrays.fill(forwardParents, -1);
+                    Arrays.fill(backwardParents, -1);
+                }
+
+                private Optional<List<String>> findRoute(int origin, int destination, FareBound fareBound) {
+                    CompiledNetworkGraph networkGraph = contractedNetworkGraph.getNetworkGraph();
+                    reach(forwardFares, forwardParents, forward, origin, 0.0, -1);
+                    //the backward search starts from every station servicing the stop, seeded with the cost of the last leg
+                    for (int edge = networkGraph.getServiceStart(destination), end = networkGraph.getServiceEnd(destination); edge < end; ++edge) {
+                        reach(backwardFares, backwardParents, backward, networkGraph.getServiceStation(edge), networkGraph.getServiceFare(edge), -1);
+                    }
+                    //Alternate between the upward searches until neither can improve on the best meeting station
+                    int meeting = -1;
+                    minimumFare = Double.POSITIVE_INFINITY;
+                    while (!forward.isEmpty() || !backward.isEmpty()) {
+                        LookupExecutors.checkInterrupted();
+                        double forwardFare = forward.isEmpty() ? Double.POSITIVE_INFINITY : forward.peekFare();
+                        double backwardFare = backward.isEmpty() ? Double.POSITIVE_INFINITY : backward.peekFare();
+                        if (Math.min(forwardFare, backwardFare) >= minimumFare) {
+                            break;
+                        }
+                        //no route left to find can beat one already found by another route finder
+                        if (fareBound != null && Math.min(forwardFare, backwardFare) >= fareBound.get()) {
+                            //the best meeting station so far may not be the minimum if it costs more than the bound
+                            if (minimumFare > fareBound.get()) {
+                                meeting = -1;
+                            }
+                            break;
+                        }
+                        if (forwardFare <= backwardFare) {
+                            int current = forward.poll();
+                            double currentFare = forwardFares[current];
+                            if (currentFare + backwardFares[current] < minimumFare) {
+                                minimumFare = currentFare + backwardFares[current];
+                                meeting = current;
+                                if (fareBound != null) {
+                                    fareBound.offer(minimumFare);
+                                }
+                            }
+                            for (int position = contractedNetworkGraph.getUpStart(current), end = contractedNetworkGraph.getUpEnd(current); position < end; ++position) {
+                                int edge = contractedNetworkGraph.getUpEdge(position);
+                                reach(forwardFares, forwardParents, forward, contractedNetworkGraph.getEdgeTarget(edge), currentFare + contractedNetworkGraph.getUpFare(position), edge);
+                            }
+                        } else {
+                            int current = backward.poll();
+                            double currentFare = backwardFares[current];
+                            if (currentFare + forwardFares[current] < minimumFare) {
+                                minimumFare = currentFare + forwardFares[current];
+                                meeting = current;
+                                if (fareBound != null) {
+                                    fareBound.offer(minimumFare);
+                                }
+                            }
+                            for (int position = contractedNetworkGraph.getDownStart(current), end = contractedNetworkGraph.getDownEnd(current); position < end; ++position) {
+                                int edge = contractedNetworkGraph.getDownEdge(position);
+                                reach(backwardFares, backwardParents, backward, contractedNetworkGraph.getEdgeSource(edge), currentFare + contractedNetworkGraph.getDownFare(position), edge);
+                            }
+                        }
+                    }
+                    //None of the stations servicing the stop are reachable from the specified station
+                    if (meeting < 0) {
+                        return Optional.empty();
+                    }
+                    //Trace the upward edges back from the meeting station, then follow the downward edges to the last leg
+                    Deque<Integer> edges = new ArrayDeque<>();
+                    for (int current = meeting; forwardParents[current] >= 0; current = contractedNetworkGraph.getEdgeSource(forwardParents[current])) {
+                        edges.addFirst(forwardParents[current]);
+                    }
+                    for (int current = meeting; backwardParents[current] >= 0; current = contractedNetworkGraph.getEdgeTarget(backwardParents[current])) {
+                        edges.addLast(backwardParents[current]);
+                    }
+                    List<String> connections = new ArrayList<>();
+                    edges.forEach(edge -> contractedNetworkGraph.unpack(edge, connections));
+                    return Optional.of(connections);
+                }
+
+                private void reach(double[] fares, int[] parents, FareHeap heap, int station, double fare, int edge) {
+                    if (fare >= fares[station]) {
+                        return;
+                    }
+                    if (forwardFares[station] == Double.POSITIVE_INFINITY && backwardFares[station] == Double.POSITIVE_INFINITY) {
+                        touched[touchedSize++] = station;
+                    }
+                    fares[station] = fare;
+                    parents[station] = edge;
+                    heap.offer(station, fare);
+                }
+
+                private void reset() {
+                    for (int i = 0; i < touchedSize; ++i) {
+                        int station = touched[i];
+                        forwardFares[station] = Double.POSITIVE_INFINITY;
+                        backwardFares[station] = Double.POSITIVE_INFINITY;
+                        forwardParents[station] = -1;
+                        backwardParents[station] = -1;
+                    }
+                    touchedSize = 0;
+                    forward.clear();
+                    backward.clear();
+                }
+            }
+        }
+    }
+
+    @Immutable
+    interface Landmarks extends RouteFinderFactory {
+        int DEFAULT_LANDMARK_COUNT = 16;
+
+        /**
+         * Represents the number of landmark stations fares are precomputed to and from.
+         * <p>
+         * More landmarks tighten the lower bounds guiding the search, at the cost of memory and of the time spent
+         * evaluating the bounds of each station.
+         *
+         * @return the number of landmarks
+         */
+        int getLandmarkCount();
+
+        Selection getSelection();
+
+        @Override
+        default RouteFinder create(NetworkGraph networkGraph) {
+            if (getLandmarkCount() <= 0) {
+                throw new IllegalArgumentException("Unable to select " + getLandmarkCount() + " landmarks.");
+            }
+            CompiledNetworkGraph compiledNetworkGraph = networkGraph.getCompiledNetworkGraph();
+            return new RouteFinder(compiledNetworkGraph, LandmarkTable.compute(compiledNetworkGraph, getLandmarkCount(), getSelection()));
+        }
+
+        /**
+         * Recomputes the fares to and from the previously selected landmarks.
+         */
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            CompiledNetworkGraph compiledNetworkGraph = updatedNetworkGraph.getCompiledNetworkGraph();
+            if (!(routeFinder instanceof RouteFinder)
+                    || compiledNetworkGraph.diffFrom(networkGraph.getCompiledNetworkGraph()).isStructural()) {
+                return create(updatedNetworkGraph);
+            }
+            return new RouteFinder(compiledNetworkGraph, ((RouteFinder) routeFinder).landmarkTable.update(compiledNetworkGraph));
+        }
+
+        enum Selection {
+            /**
+             * Selects landmarks uniformly at random.
+             */
+            RANDOM,
+            /**
+             * Selects each landmark as the station farthest from the landmarks selected so far, which tends to place
+             * landmarks on the edges of the network where they produce the tightest bounds.
+             */
+            FARTHEST
+        }
+
+        class RouteFinder implements BoundedRouteFinder {
+            private final CompiledNetworkGraph networkGraph;
+            private final LandmarkTable landmarkTable;
+            private final SearchPool<Search> searches;
+
+            public RouteFinder(@NonNull CompiledNetworkGraph networkGraph, @NonNull LandmarkTable landmarkTable) {
+                this.networkGraph = networkGraph;
+                this.landmarkTable = landmarkTable;
+                this.searches = new SearchPool<>(() -> new Search(networkGraph.getStationCount()));
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                return findRoute(station, stop, null);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop, FareBound fareBound) {
+                if (networkGraph.getStationCount() == 0) {
+                    return Optional.empty();
+                }
+                int origin = networkGraph.indexOfStation(station.getId());
+                if (origin < 0) {
+                    throw new IllegalArgumentException("Unable to find " + station.getId() + " in the network.");
+                }
+                int destination = networkGraph.indexOfStop(stop.getId());
+                if (destination < 0) {
+                    throw new IllegalStateException("Unable to find direct route costs for " + stop.getId() + " when finding route.");
+                }
+                Search search = searches.borrow();
+                try {
+                    return search.findRoute(origin, destination, fareBound).map(connections -> Route.builder()
+                            .setRouteInfo(RouteInfo.of(Instant.now(), search.minimumFare))
+                            .setStation(station.getId())
+                            .setConnections(connections)
+                            .setStop(stop.getId())
+                            .build());
+                } finally {
+                    search.reset();
+                    searches.release(search);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "Landmarks{landmarks=" + landmarkTable.getLandmarkCount() + "}";
+            }
+
+            private final class Search {
+                private final double[] fares;
+                private final int[] parents;
+                private final FareHeap heap;
+                private final int[] touched;
+                private int touchedSize;
+                private double minimumFare;
+
+                private Search(int stationCount) {
+                    this.fares = new double[stationCount];
+                    this.parents = new int[stationCount];
+                    this.heap = new FareHeap(stationCount);
+                    this.touched = new int[stationCount];
+                    Arrays.fill(fares, Double.POSITIVE_INFINITY);
+                    Arrays.fill(parents, -1);
+                }
+
+                /**
+                 * Settles stations in order of their fare plus the lower bound of the fare to the stop (A*), until no
+                 * unsettled station can improve on the best route found.
+                 */
+                private Optional<List<String>> findRoute(int origin, int destination, FareBound fareBound) {
+                    int minimumLastLeg = -1;
+                    minimumFare = Double.POSITIVE_INFINITY;
+                    double originBound = landmarkTable.getLowerBound(origin, destination);
+                    if (originBound == Double.POSITIVE_INFINITY) {
+                        return Optional.empty();
+                    }
+                    fares[origin] = 0.0;
+                    touched[touchedSize++] = origin;
+                    heap.offer(origin, originBound);
+                    while (!heap.isEmpty() && heap.peekFare() < minimumFare) {
+                        LookupExecutors.checkInterrupted();
+                        //queued stations are keyed by a lower bound of their route, so none can beat the shared bound
+                        if (fareBound != null && heap.peekFare() >= fareBound.get()) {
+                            //the best route so far may not be the minimum if it costs more than the bound
+                            if (minimumFare > fareBound.get()) {
+                                minimumLastLeg = -1;
+                            }
+                            break;
+                        }
+                        int current = heap.poll();
+                        double currentFare = fares[current];
+                        //Calculate the true minimum route which takes into account the cost of the last leg (station -> stop)
+                        double lastLegCost = networkGraph.getDestinationFare(current, destination);
+                        if (!Double.isNaN(lastLegCost) && currentFare + lastLegCost < minimumFare) {
+                            minimumLastLeg = current;
+                            minimumFare = currentFare + lastLegCost;
+                            if (fareBound != null) {
+                                fareBound.offer(minimumFare);
+                            }
+                        }
+                        for (int edge = networkGraph.getConnectionStart(current), end = networkGraph.getConnectionEnd(current); edge < end; ++edge) {
+                            int connectingStation = networkGraph.getConnectionTarget(edge);
+                            double newFareToConnection = currentFare + networkGraph.getConnectionFare(edge);
+                            if (newFareToConnection >= fares[connectingStation]) {
+                                continue;
+                            }
+                            double lowerBound = landmarkTable.getLowerBound(connectingStation, destination);
+                            //stations which cannot reach the stop are never worth settling
+                            if (lowerBound == Double.POSITIVE_INFINITY) {
+                                continue;
+                            }
+                            if (fares[connectingStation] == Double.POSITIVE_INFINITY) {
+                                touched[touchedSize++] = connectingStation;
+                            }
+                            fares[connectingStation] = newFareToConnection;
+                            parents[connectingStation] = current;
+                            heap.offer(connectingStation, newFareToConnection + lowerBound);
+                        }
+                    }
+                    //None of the stations servicing the stop are reachable from the specified station
+                    if (minimumLastLeg < 0) {
+                        return Optional.empty();
+                    }
+                    //Add the connections in reverse order (we trace the shortest path back by each leg from the last station)
+                    List<String> connections = new ArrayList<>();
+                    for (int currentLeg = minimumLastLeg; currentLeg != origin; currentLeg = parents[currentLeg]) {
+                        connections.add(networkGraph.getStationId(currentLeg));
+                    }
+                    Collections.reverse(connections);
+                    return Optional.of(connections);
+                }
+
+                private void reset() {
+                    for (int i = 0; i < touchedSize; ++i) {
+                        fares[touched[i]] = Double.POSITIVE_INFINITY;
+                        parents[touched[i]] = -1;
+                    }
+                    touchedSize = 0;
+                    heap.clear();
+                }
             }
         }
     }
@@ -296,9 +1379,80 @@ public interface RouteFinderFactory {
             Set<io.navigation.RouteFinder> routeFinders = getRouteFinderFactories().stream()
                     .map(factory -> factory.create(networkGraph))
                     .collect(ImmutableSet.toImmutableSet());
-            return RouteMultiFinder.parallel("MinimumFare", routeFinders,
-                    routes -> routes.min(Comparator.comparingDouble(route -> route.getRouteInfo().getFare()))
-            );
+            return new RouteFinder(routeFinders);
+        }
+
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            if (!(routeFinder instanceof RouteFinder)) {
+                return create(updatedNetworkGraph);
+            }
+            return new RouteFinder(RouteMultiFinder.update(getRouteFinderFactories(), ((RouteFinder) routeFinder).routeFinders,
+                    networkGraph, updatedNetworkGraph));
+        }
+
+        /**
+         * Runs every route finder in parallel, sharing a {@link FareBound} between them so route finders which are
+         * {@link BoundedRouteFinder} stop searching once another route finder has found a route they cannot beat.
+         */
+        class RouteFinder implements io.navigation.RouteFinder {
+            private final Collection<io.navigation.RouteFinder> routeFinders;
+            private final io.navigation.RouteFinder routeMultiFinder;
+
+            public RouteFinder(@NonNull Collection<io.navigation.RouteFinder> routeFinders) {
+                this.routeFinders = routeFinders;
+                this.routeMultiFinder = RouteMultiFinder.parallel("MinimumFare", routeFinders,
+                        routes -> routes.min(Comparator.comparingDouble(route -> route.getRouteInfo().getFare()))
+                );
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                FareBound fareBound = new FareBound();
+                return findMinimumFareRoute(routeFinder -> routeFinder instanceof BoundedRouteFinder
+                        ? ((BoundedRouteFinder) routeFinder).findRoute(station, stop, fareBound)
+                        : routeFinder.findRoute(station, stop), fareBound);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops) {
+                FareBound fareBound = new FareBound();
+                return findMinimumFareRoute(routeFinder -> routeFinder instanceof BoundedRouteFinder
+                        ? ((BoundedRouteFinder) routeFinder).findRoute(stations, stops, fareBound)
+                        : routeFinder.findRoute(stations, stops), fareBound);
+            }
+
+            @Override
+            public Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+                return routeMultiFinder.findRoutes(station, stops);
+            }
+
+            /**
+             * Represents the route finders this route finder delegates to, in the order their factories created them.
+             *
+             * @return the delegate route finders
+             */
+            List<io.navigation.RouteFinder> getRouteFinders() {
+                return ImmutableList.copyOf(routeFinders);
+            }
+
+            @Override
+            public String toString() {
+                return "MinimumFare" + routeFinders;
+            }
+
+            private Optional<Route> findMinimumFareRoute(Function<io.navigation.RouteFinder, Optional<Route>> lookup, FareBound fareBound) {
+                return routeFinders.parallelStream()
+                        .map(routeFinder -> {
+                            Optional<Route> route = lookup.apply(routeFinder);
+                            //routes from unbounded route finders still tighten the bound for the others
+                            route.ifPresent(found -> fareBound.offer(found.getRouteInfo().getFare()));
+                            return route;
+                        })
+                        .filter(Optional::isPresent)
+                        .map(Optional::get)
+                        .min(Comparator.comparingDouble(route -> route.getRouteInfo().getFare()));
+            }
         }
     }
 
@@ -311,7 +1465,279 @@ public interface RouteFinderFactory {
             Set<io.navigation.RouteFinder> routeFinders = getRouteFinderFactories().stream()
                     .map(factory -> factory.create(networkGraph))
                     .collect(ImmutableSet.toImmutableSet());
-            return RouteMultiFinder.parallel("QuickSelect", routeFinders, Stream::findAny);
+            return new RouteFinder(routeFinders, LookupExecutors.defaultExecutor());
+        }
+
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            if (!(routeFinder instanceof RouteFinder)) {
+                return create(updatedNetworkGraph);
+            }
+            RouteFinder previous = (RouteFinder) routeFinder;
+            return new RouteFinder(RouteMultiFinder.update(getRouteFinderFactories(), previous.routeFinders, networkGraph, updatedNetworkGraph),
+                    previous.executor);
+        }
+
+        /**
+         * Races the route finders against each other, answering with the first route found and interrupting the route
+         * finders which are still searching.
+         */
+        class RouteFinder implements io.navigation.RouteFinder {
+            private final Collection<io.navigation.RouteFinder> routeFinders;
+            private final Executor executor;
+            private final io.navigation.RouteFinder routeMultiFinder;
+
+            public RouteFinder(@NonNull Collection<io.navigation.RouteFinder> routeFinders, @NonNull Executor executor) {
+                this.routeFinders = routeFinders;
+                this.executor = executor;
+                this.routeMultiFinder = RouteMultiFinder.parallel("QuickSelect", routeFinders, Stream::findAny);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                return LookupExecutors.await(race(routeFinder -> routeFinder.findRoute(station, stop), executor));
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops) {
+                return LookupExecutors.await(race(routeFinder -> routeFinder.findRoute(stations, stops), executor));
+            }
+
+            @Override
+            public Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+                //every route finder must finish to know which of them reached each stop, so there is nothing to race
+                return routeMultiFinder.findRoutes(station, stops);
+            }
+
+            @Override
+            public CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop, @NonNull Executor executor) {
+                return race(routeFinder -> routeFinder.findRoute(station, stop), executor);
+            }
+
+            @Override
+            public CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop,
+                                                                     @NonNull Executor executor, @NonNull Duration deadline) {
+                return LookupExecutors.withDeadline(findRouteAsync(station, stop, executor), deadline);
+            }
+
+            /**
+             * Represents the route finders this route finder delegates to, in the order their factories created them.
+             *
+             * @return the delegate route finders
+             */
+            List<io.navigation.RouteFinder> getRouteFinders() {
+                return ImmutableList.copyOf(routeFinders);
+            }
+
+            @Override
+            public String toString() {
+                return "QuickSelect" + routeFinders;
+            }
+
+            private CompletableFuture<Optional<Route>> race(Function<io.navigation.RouteFinder, Optional<Route>> lookup, Executor executor) {
+                CompletableFuture<Optional<Route>> race = new CompletableFuture<>();
+                if (routeFinders.isEmpty()) {
+                    race.complete(Optional.empty());
+                    return race;
+                }
+                AtomicInteger remaining = new AtomicInteger(routeFinders.size());
+                AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+                List<CompletableFuture<Optional<Route>>> lookups = new ArrayList<>(routeFinders.size());
+                for (io.navigation.RouteFinder routeFinder : routeFinders) {
+                    CompletableFuture<Optional<Route>> route = LookupExecutors.supplyAsync(() -> lookup.apply(routeFinder), executor);
+                    route.whenComplete((result, failure) -> {
+                        if (failure == null && result.isPresent()) {
+                            race.complete(result);
+                            return;
+                        }
+                        if (failure != null) {
+                            firstFailure.compareAndSet(null, failure);
+                        }
+                        //only once every route finder came up empty is the route known to be unreachable
+                        if (remaining.decrementAndGet() == 0) {
+                            Throwable failed = firstFailure.get();
+                            if (failed == null) {
+                                race.complete(Optional.empty());
+                            } else {
+                                race.completeExceptionally(failed);
+                            }
+                        }
+                    });
+                    lookups.add(route);
+                }
+                //once the race is decided (or cancelled, or out of time) the route finders still searching are interrupted
+                race.whenComplete((result, failure) -> lookups.forEach(route -> route.cancel(true)));
+                return race;
+            }
+        }
+    }
+
+    /**
+     * Sends each lookup to a primary route finder, only also sending it to a backup route finder if the primary has
+     * not answered within a percentile of its recent latencies. Whichever answers first is used, and the other is
+     * interrupted.
+     * <p>
+     * The backup is also used straight away when the primary fails. Until enough lookups have been observed, the
+     * backup is launched after {@value #INITIAL_DELAY_MILLIS} milliseconds.
+     */
+    @Immutable
+    interface Hedged extends RouteFinderFactory {
+        double DEFAULT_PERCENTILE = 0.95;
+        long INITIAL_DELAY_MILLIS = 10;
+        int LATENCY_WINDOW_SIZE = 1024;
+
+        RouteFinderFactory getPrimary();
+
+        RouteFinderFactory getBackup();
+
+        /**
+         * Represents the percentile of the recent latencies of the primary after which the backup is launched.
+         * <p>
+         * A percentile of {@code 0.95} sends roughly one in twenty lookups to the backup as well.
+         *
+         * @return the percentile of primary latencies, in {@code (0, 1]}
+         */
+        double getPercentile();
+
+        @Override
+        default RouteFinder create(NetworkGraph networkGraph) {
+            return new RouteFinder(getPrimary().create(networkGraph), getBackup().create(networkGraph),
+                    getPercentile(), LookupExecutors.defaultExecutor());
+        }
+
+        @Override
+        default RouteFinder update(io.navigation.RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            if (!(routeFinder instanceof RouteFinder)) {
+                return create(updatedNetworkGraph);
+            }
+            RouteFinder previous = (RouteFinder) routeFinder;
+            return new RouteFinder(getPrimary().update(previous.primary, networkGraph, updatedNetworkGraph),
+                    getBackup().update(previous.backup, networkGraph, updatedNetworkGraph), getPercentile(), previous.executor);
+        }
+
+        class RouteFinder implements io.navigation.RouteFinder {
+            private final io.navigation.RouteFinder primary;
+            private final io.navigation.RouteFinder backup;
+            private final Executor executor;
+            private final LatencyWindow routeLatencies;
+            private final LatencyWindow multiRouteLatencies;
+            private final LatencyWindow minimumRouteLatencies;
+
+            public RouteFinder(@NonNull io.navigation.RouteFinder primary, @NonNull io.navigation.RouteFinder backup,
+                               double percentile, @NonNull Executor executor) {
+                this.primary = primary;
+                this.backup = backup;
+                this.executor = executor;
+                //each kind of lookup has its own latency profile
+                long initialDelay = TimeUnit.MILLISECONDS.toNanos(INITIAL_DELAY_MILLIS);
+                this.routeLatencies = new LatencyWindow(LATENCY_WINDOW_SIZE, percentile, initialDelay);
+                this.multiRouteLatencies = new LatencyWindow(LATENCY_WINDOW_SIZE, percentile, initialDelay);
+                this.minimumRouteLatencies = new LatencyWindow(LATENCY_WINDOW_SIZE, percentile, initialDelay);
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Station station, @NonNull Stop stop) {
+                return LookupExecutors.await(hedge(routeFinder -> routeFinder.findRoute(station, stop), routeLatencies, executor));
+            }
+
+            @Override
+            public Stream<Route> findRoutes(@NonNull Station station, @NonNull Set<Stop> stops) {
+                return LookupExecutors.await(hedge(routeFinder -> routeFinder.findRoutes(station, stops).collect(Collectors.toList()),
+                        multiRouteLatencies, executor)).stream();
+            }
+
+            @Override
+            public Optional<Route> findRoute(@NonNull Set<Station> stations, @NonNull Set<Stop> stops) {
+                return LookupExecutors.await(hedge(routeFinder -> routeFinder.findRoute(stations, stops), minimumRouteLatencies, executor));
+            }
+
+            @Override
+            public CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop, @NonNull Executor executor) {
+                return hedge(routeFinder -> routeFinder.findRoute(station, stop), routeLatencies, executor);
+            }
+
+            @Override
+            public CompletableFuture<Optional<Route>> findRouteAsync(@NonNull Station station, @NonNull Stop stop,
+                                                                     @NonNull Executor executor, @NonNull Duration deadline) {
+                return LookupExecutors.withDeadline(findRouteAsync(station, stop, executor), deadline);
+            }
+
+            /**
+             * Represents the route finders this route finder delegates to, in the order their factories created them.
+             *
+             * @return the delegate route finders
+             */
+            List<io.navigation.RouteFinder> getRouteFinders() {
+                return ImmutableList.of(primary, backup);
+            }
+
+            @Override
+            public String toString() {
+                return "Hedged{primary=" + primary + ", backup=" + backup + "}";
+            }
+
+            private <T> CompletableFuture<T> hedge(Function<io.navigation.RouteFinder, T> lookup, LatencyWindow latencies, Executor executor) {
+                CompletableFuture<T> hedge = new CompletableFuture<>();
+                AtomicBoolean backupLaunched = new AtomicBoolean();
+                AtomicReference<CompletableFuture<T>> backupLookup = new AtomicReference<>();
+                AtomicReference<Throwable> primaryFailure = new AtomicReference<>();
+                //the hedge only fails once both route finders have failed, reporting the failure of the primary
+                AtomicInteger failures = new AtomicInteger();
+                Runnable launchBackup = () -> {
+                    if (hedge.isDone() || !backupLaunched.compareAndSet(false, true)) {
+                        return;
+                    }
+                    CompletableFuture<T> launched = LookupExecutors.supplyAsync(() -> lookup.apply(backup), executor);
+                    backupLookup.set(launched);
+                    launched.whenComplete((result, failure) -> {
+                        if (failure == null) {
+                            hedge.complete(result);
+                        } else if (failures.incrementAndGet() == 2) {
+                            hedge.completeExceptionally(primaryFailure.get());
+                        }
+                    });
+                    //the hedge may have been decided while the backup was being launched
+                    if (hedge.isDone()) {
+                        launched.cancel(true);
+                    }
+                };
+                long delay = latencies.getPercentile();
+                long start = System.nanoTime();
+                CompletableFuture<T> primaryLookup = LookupExecutors.supplyAsync(() -> lookup.apply(primary), executor);
+                primaryLookup.whenComplete((result, failure) -> {
+                    if (failure == null) {
+                        latencies.record(System.nanoTime() - start);
+                        hedge.complete(result);
+                        return;
+                    }
+                    if (failure instanceof CancellationException) {
+                        //a primary which lost or was cancelled is recorded as taking at least the hedge delay, otherwise only
+                        //fast primaries would be recorded and the delay would shrink as the primary slows down
+                        latencies.record(Math.max(System.nanoTime() - start, delay));
+                        return;
+                    }
+                    primaryFailure.set(failure);
+                    if (failures.incrementAndGet() == 2) {
+                        hedge.completeExceptionally(failure);
+                    } else {
+                        //fail over to the backup straight away, unless it is already running
+                        launchBackup.run();
+                    }
+                });
+                ScheduledFuture<?> timer = hedge.isDone() ? null : LookupExecutors.schedule(launchBackup, delay);
+                hedge.whenComplete((result, failure) -> {
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                    //the route finder which lost (or both, if the hedge was cancelled or out of time) is interrupted
+                    primaryLookup.cancel(true);
+                    CompletableFuture<T> launched = backupLookup.get();
+                    if (launched != null) {
+                        launched.cancel(true);
+                    }
+                });
+                return hedge;
+            }
         }
     }
 
@@ -326,6 +1752,15 @@ public interface RouteFinderFactory {
                     .collect(ImmutableList.toImmutableList());
             return RouteMultiFinder.sequential("FirstOption", routeFinders, Stream::findFirst);
         }
+
+        @Override
+        default RouteFinder update(RouteFinder routeFinder, NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            if (!(routeFinder instanceof RouteMultiFinder)) {
+                return create(updatedNetworkGraph);
+            }
+            return RouteMultiFinder.sequential("FirstOption", RouteMultiFinder.update(getRouteFinderFactories(),
+                    ((RouteMultiFinder) routeFinder).routeFinders, networkGraph, updatedNetworkGraph), Stream::findFirst);
+        }
     }
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
@@ -343,6 +1778,17 @@ public interface RouteFinderFactory {
             return new RouteMultiFinder(name, routeFinders, routeSelector, true);
         }
 
+        /**
+         * Updates each route finder with the factory which created it, pairing them up in iteration order.
+         */
+        static List<RouteFinder> update(Collection<RouteFinderFactory> routeFinderFactories, Collection<RouteFinder> routeFinders,
+                                        NetworkGraph networkGraph, NetworkGraph updatedNetworkGraph) {
+            Iterator<RouteFinder> iterator = routeFinders.iterator();
+            return routeFinderFactories.stream()
+                    .map(factory -> factory.update(iterator.next(), networkGraph, updatedNetworkGraph))
+                    .collect(ImmutableList.toImmutableList());
+        }
+
         @Override
         public Optional<Route> findRoute(Station station, Stop stop) {
             Stream<Route> validOptions = (parallel ? routeFinders.parallelStream() : routeFinders.stream())
@@ -352,6 +1798,63 @@ public interface RouteFinderFactory {
             return routeSelector.apply(validOptions);
         }
 
+        @Override
+        public CompletableFuture<Optional<Route>> findRouteAsync(Station station, Stop stop, Executor executor) {
+            if (!parallel) {
+                return RouteFinder.super.findRouteAsync(station, stop, executor);
+            }
+            //fan out each route finder onto the executor, rather than the common fork/join pool
+            List<CompletableFuture<Optional<Route>>> lookups = routeFinders.stream()
+                    .map(routeFinder -> routeFinder.findRouteAsync(station, stop, executor))
+                    .collect(Collectors.toList());
+            CompletableFuture<Optional<Route>> route = CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(ignored -> routeSelector.apply(lookups.stream()
+                            .map(CompletableFuture::join)
+                            .filter(Optional::isPresent)
+                            .map(Optional::get)));
+            route.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    lookups.forEach(lookup -> lookup.cancel(true));
+                }
+            });
+            return route;
+        }
+
+        @Override
+        public CompletableFuture<Optional<Route>> findRouteAsync(Station station, Stop stop, Executor executor, Duration deadline) {
+            return LookupExecutors.withDeadline(findRouteAsync(station, stop, executor), deadline);
+        }
+
+        @Override
+        public Optional<Route> findRoute(Set<Station> stations, Set<Stop> stops) {
+            Stream<Route> validOptions = (parallel ? routeFinders.parallelStream() : routeFinders.stream())
+                    .map(routeFinder -> routeFinder.findRoute(stations, stops))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get);
+            return routeSelector.apply(validOptions);
+        }
+
+        @Override
+        public Stream<Route> findRoutes(Station station, Set<Stop> stops) {
+            //group the routes found by each route finder per stop (in route finder order) before selecting between them
+            Map<String, List<Route>> validOptions = (parallel ? routeFinders.parallelStream() : routeFinders.stream())
+                    .flatMap(routeFinder -> routeFinder.findRoutes(station, stops))
+                    .collect(Collectors.groupingBy(Route::getStop, LinkedHashMap::new, Collectors.toList()));
+            return validOptions.values().stream()
+                    .map(routes -> routeSelector.apply(routes.stream()))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get);
+        }
+
+        /**
+         * Represents the route finders this route finder delegates to, in the order their factories created them.
+         *
+         * @return the delegate route finders
+         */
+        List<RouteFinder> getRouteFinders() {
+            return ImmutableList.copyOf(routeFinders);
+        }
+
         @Override
         public String toString() {
             return name + routeFinders;
@@ -0,0 +1,35 @@
+package io.navigation;
+
+import io.navigation.immutables.ImmutableNavigationNetworkStyle;
+import org.immutables.value.Value.Immutable;
+
+/**
+ * A request for the route from a {@link Station} to a {@link Stop}, answered in bulk by
+ * {@link RouteFinder#findRoutes(java.util.List)}.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+@Immutable
+@ImmutableNavigationNetworkStyle
+public interface RouteQuery {
+    static Builder builder() {
+        return ImmutableRouteQuery.builder();
+    }
+
+    static RouteQuery of(Station station, Stop stop) {
+        return ImmutableRouteQuery.of(station, stop);
+    }
+
+    Station getStation();
+
+    Stop getStop();
+
+    interface Builder {
+        Builder setStation(Station station);
+
+        Builder setStop(Stop stop);
+
+        RouteQuery build();
+    }
+}
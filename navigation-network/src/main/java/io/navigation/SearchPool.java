@@ -0,0 +1,59 @@
+package io.navigation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of the reusable state of a route engine's searches, such as its per-station fares and parents.
+ * <p>
+ * Each query borrows a search and releases it once reset, so concurrent queries never share a search. The pool belongs
+ * to a route finder rather than to the threads querying it, so searches are reused across short-lived (or virtual)
+ * lookup threads and are released along with the route finder once it is replaced. Queries beyond the capacity of the
+ * pool allocate a search of their own, which is discarded if the pool is full when it is released.
+ *
+ * @param <T> the search type
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class SearchPool<T> {
+    private final BlockingQueue<T> searches;
+    private final Supplier<T> factory;
+
+    /**
+     * Creates a search pool holding a search for each available processor.
+     *
+     * @param factory creates a search when none is available
+     */
+    SearchPool(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a search pool.
+     *
+     * @param factory  creates a search when none is available
+     * @param capacity the maximum number of idle searches held
+     */
+    SearchPool(Supplier<T> factory, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Unable to pool searches with a capacity of " + capacity + ".");
+        }
+        this.searches = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    T borrow() {
+        T search = searches.poll();
+        return search == null ? factory.get() : search;
+    }
+
+    /**
+     * Returns a search to the pool, which must have been reset first.
+     *
+     * @param search the search
+     */
+    void release(T search) {
+        searches.offer(search);
+    }
+}
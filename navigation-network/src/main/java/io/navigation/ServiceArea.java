@@ -4,9 +4,16 @@ import io.navigation.immutables.ImmutableNavigationNetworkStyle;
 import org.immutables.value.Value.Enclosing;
 import org.immutables.value.Value.Immutable;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
+ * A region of coordinates serviced by a {@link Station} or {@link Stop}.
+ * <p>
+ * Service areas over a {@link Point} may expose their {@link Bounds}, which lets spatially indexed
+ * {@link NetworkFinderFactory} only test the service areas whose bounds contain a coordinate.
+ *
  * @author Ian Caffey
  * @since 1.0
  */
@@ -41,14 +48,91 @@ public interface ServiceArea<C> {
         return ImmutableServiceArea.Union.of(serviceAreas);
     }
 
+    static <C extends Point> Circle<C> circle(Point center, double radius) {
+        return ImmutableServiceArea.Circle.of(center, radius);
+    }
+
+    static <C extends Point> Box<C> box(Bounds bounds) {
+        return ImmutableServiceArea.Box.of(bounds);
+    }
+
+    static <C extends Point> Polygon<C> polygon(Iterable<? extends Point> vertices) {
+        return ImmutableServiceArea.Polygon.of(vertices);
+    }
+
     boolean contains(C coordinate);
 
+    /**
+     * Compiles the service area into an equivalent service area which is cheaper to test.
+     * <p>
+     * Nested unions and intersections are flattened and simplified, and their service areas are tested in a loop
+     * which adapts its order to the service areas most likely to decide the result.
+     *
+     * @return the compiled service area
+     */
+    default ServiceArea<C> compile() {
+        return CompiledServiceArea.compile(this);
+    }
+
+    /**
+     * Represents the bounds enclosing every coordinate within the service area.
+     *
+     * @return the bounds of the service area, or {@link Optional#empty()} if the service area is unbounded
+     */
+    default Optional<Bounds> getBounds() {
+        return Optional.empty();
+    }
+
+    /**
+     * Relates the service area to every coordinate within the bounds.
+     * <p>
+     * The relation is conservative: {@link Relation#PARTIAL} is always a valid answer, even when every coordinate
+     * within the bounds is inside (or outside) the service area.
+     *
+     * @param bounds the bounds
+     * @return the relation of the service area to the bounds
+     */
+    default Relation relate(Bounds bounds) {
+        Optional<Bounds> serviceAreaBounds = getBounds();
+        if (serviceAreaBounds.isPresent() && serviceAreaBounds.get().intersection(bounds).isEmpty()) {
+            return Relation.OUTSIDE;
+        }
+        return Relation.PARTIAL;
+    }
+
+    /**
+     * Represents how every coordinate within some {@link Bounds} relates to a service area.
+     */
+    enum Relation {
+        /**
+         * Every coordinate within the bounds is contained in the service area.
+         */
+        INSIDE,
+        /**
+         * No coordinate within the bounds is contained in the service area.
+         */
+        OUTSIDE,
+        /**
+         * Some coordinates within the bounds may be contained in the service area.
+         */
+        PARTIAL;
+
+        Relation negate() {
+            return this == INSIDE ? OUTSIDE : this == OUTSIDE ? INSIDE : PARTIAL;
+        }
+    }
+
     @Immutable
     interface Global<C> extends ServiceArea<C> {
         @Override
         default boolean contains(C coordinate) {
             return true;
         }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            return Relation.INSIDE;
+        }
     }
 
     @Immutable
@@ -57,6 +141,16 @@ public interface ServiceArea<C> {
         default boolean contains(C coordinate) {
             return false;
         }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            return Optional.of(Bounds.empty());
+        }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            return Relation.OUTSIDE;
+        }
     }
 
     @Immutable
@@ -67,6 +161,11 @@ public interface ServiceArea<C> {
         default boolean contains(C coordinate) {
             return !getServiceArea().contains(coordinate);
         }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            return getServiceArea().relate(bounds).negate();
+        }
     }
 
     @Immutable
@@ -77,6 +176,31 @@ public interface ServiceArea<C> {
         default boolean contains(C coordinate) {
             return getServiceAreas().stream().allMatch(serviceArea -> serviceArea.contains(coordinate));
         }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            //any bounded service area bounds the intersection
+            return getServiceAreas().stream()
+                    .map(ServiceArea::getBounds)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .reduce(Bounds::intersection);
+        }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            Relation relation = Relation.INSIDE;
+            for (ServiceArea<? super C> serviceArea : getServiceAreas()) {
+                Relation serviceAreaRelation = serviceArea.relate(bounds);
+                if (serviceAreaRelation == Relation.OUTSIDE) {
+                    return Relation.OUTSIDE;
+                }
+                if (serviceAreaRelation == Relation.PARTIAL) {
+                    relation = Relation.PARTIAL;
+                }
+            }
+            return relation;
+        }
     }
 
     @Immutable
@@ -87,5 +211,131 @@ public interface ServiceArea<C> {
         default boolean contains(C coordinate) {
             return getServiceAreas().stream().anyMatch(serviceArea -> serviceArea.contains(coordinate));
         }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            //a single unbounded service area leaves the union unbounded
+            Bounds bounds = Bounds.empty();
+            for (ServiceArea<? super C> serviceArea : getServiceAreas()) {
+                Optional<Bounds> serviceAreaBounds = serviceArea.getBounds();
+                if (!serviceAreaBounds.isPresent()) {
+                    return Optional.empty();
+                }
+                bounds = bounds.union(serviceAreaBounds.get());
+            }
+            return Optional.of(bounds);
+        }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            Relation relation = Relation.OUTSIDE;
+            for (ServiceArea<? super C> serviceArea : getServiceAreas()) {
+                Relation serviceAreaRelation = serviceArea.relate(bounds);
+                if (serviceAreaRelation == Relation.INSIDE) {
+                    return Relation.INSIDE;
+                }
+                if (serviceAreaRelation == Relation.PARTIAL) {
+                    relation = Relation.PARTIAL;
+                }
+            }
+            return relation;
+        }
+    }
+
+    @Immutable
+    interface Circle<C extends Point> extends ServiceArea<C> {
+        Point getCenter();
+
+        double getRadius();
+
+        @Override
+        default boolean contains(C coordinate) {
+            Point center = getCenter();
+            double dx = coordinate.getX() - center.getX();
+            double dy = coordinate.getY() - center.getY();
+            double radius = getRadius();
+            return dx * dx + dy * dy <= radius * radius;
+        }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            Point center = getCenter();
+            double radius = getRadius();
+            return Optional.of(Bounds.of(center.getX() - radius, center.getY() - radius, center.getX() + radius, center.getY() + radius));
+        }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            if (bounds.isEmpty()) {
+                return Relation.OUTSIDE;
+            }
+            //the nearest and farthest points of the bounds from the center decide the relation
+            Point center = getCenter();
+            double radius = getRadius();
+            double nearX = Math.max(bounds.getMinimumX(), Math.min(center.getX(), bounds.getMaximumX())) - center.getX();
+            double nearY = Math.max(bounds.getMinimumY(), Math.min(center.getY(), bounds.getMaximumY())) - center.getY();
+            if (nearX * nearX + nearY * nearY > radius * radius) {
+                return Relation.OUTSIDE;
+            }
+            double farX = Math.max(center.getX() - bounds.getMinimumX(), bounds.getMaximumX() - center.getX());
+            double farY = Math.max(center.getY() - bounds.getMinimumY(), bounds.getMaximumY() - center.getY());
+            return farX * farX + farY * farY <= radius * radius ? Relation.INSIDE : Relation.PARTIAL;
+        }
+    }
+
+    @Immutable
+    interface Box<C extends Point> extends ServiceArea<C> {
+        Bounds getBox();
+
+        @Override
+        default boolean contains(C coordinate) {
+            return getBox().contains(coordinate);
+        }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            return Optional.of(getBox());
+        }
+
+        @Override
+        default Relation relate(Bounds bounds) {
+            Bounds box = getBox();
+            if (bounds.isEmpty() || box.intersection(bounds).isEmpty()) {
+                return Relation.OUTSIDE;
+            }
+            return box.union(bounds).equals(box) ? Relation.INSIDE : Relation.PARTIAL;
+        }
+    }
+
+    @Immutable
+    interface Polygon<C extends Point> extends ServiceArea<C> {
+        List<Point> getVertices();
+
+        @Override
+        default boolean contains(C coordinate) {
+            //even-odd rule, casting a ray from the coordinate along the positive x axis
+            List<Point> vertices = getVertices();
+            double x = coordinate.getX();
+            double y = coordinate.getY();
+            boolean inside = false;
+            for (int i = 0, j = vertices.size() - 1; i < vertices.size(); j = i++) {
+                Point a = vertices.get(i);
+                Point b = vertices.get(j);
+                if ((a.getY() > y) != (b.getY() > y)
+                        && x < (b.getX() - a.getX()) * (y - a.getY()) / (b.getY() - a.getY()) + a.getX()) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        @Override
+        default Optional<Bounds> getBounds() {
+            Bounds bounds = Bounds.empty();
+            for (Point vertex : getVertices()) {
+                bounds = bounds.union(Bounds.of(vertex.getX(), vertex.getY(), vertex.getX(), vertex.getY()));
+            }
+            return Optional.of(bounds);
+        }
     }
 }
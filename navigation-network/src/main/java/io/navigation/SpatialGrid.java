@@ -0,0 +1,191 @@
+package io.navigation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * A uniform grid over the {@link Bounds} of a list of entries, used to find the entries whose bounds may contain a
+ * {@link Point}.
+ * <p>
+ * Each bounded entry is registered in every cell its bounds overlap. Entries without bounds, or whose bounds span too
+ * much of the grid to be worth registering cell by cell, are kept aside and are candidates for every point. Entries
+ * with empty bounds are never candidates. Candidates are always produced in ascending entry order.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class SpatialGrid {
+    private static final int MAXIMUM_DIMENSION = 1024;
+
+    private final double minimumX;
+    private final double minimumY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    private final int[] cellOffsets;
+    private final int[] cellEntries;
+    private final int[] unbounded;
+
+    private SpatialGrid(double minimumX, double minimumY, double cellWidth, double cellHeight, int columns, int rows,
+                        int[] cellOffsets, int[] cellEntries, int[] unbounded) {
+        this.minimumX = minimumX;
+        this.minimumY = minimumY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellOffsets = cellOffsets;
+        this.cellEntries = cellEntries;
+        this.unbounded = unbounded;
+    }
+
+    /**
+     * Builds a grid with roughly one cell per bounded entry.
+     *
+     * @param bounds the bounds of each entry, or {@link Optional#empty()} for unbounded entries
+     * @return the spatial grid
+     */
+    static SpatialGrid build(List<Optional<Bounds>> bounds) {
+        int size = bounds.size();
+        Bounds extent = Bounds.empty();
+        int boundedCount = 0;
+        for (Optional<Bounds> entryBounds : bounds) {
+            if (isIndexable(entryBounds)) {
+                extent = extent.union(entryBounds.get());
+                ++boundedCount;
+            }
+        }
+        int dimension = Math.max(1, Math.min(MAXIMUM_DIMENSION, (int) Math.ceil(Math.sqrt(boundedCount))));
+        double minimumX = extent.getMinimumX();
+        double minimumY = extent.getMinimumY();
+        double width = extent.getMaximumX() - minimumX;
+        double height = extent.getMaximumY() - minimumY;
+        //degenerate extents collapse to a single column or row
+        int columns = width > 0 ? dimension : 1;
+        int rows = height > 0 ? dimension : 1;
+        double cellWidth = width > 0 ? width / columns : 1.0;
+        double cellHeight = height > 0 ? height / rows : 1.0;
+        int cellCount = columns * rows;
+        int maximumCells = Math.max(16, cellCount / 4);
+        //first pass counts the entries per cell, second pass fills them in entry order
+        int[] cellOffsets = new int[cellCount + 1];
+        int[] spans = new int[size * 4];
+        int unboundedCount = 0;
+        for (int entry = 0; entry < size; ++entry) {
+            Optional<Bounds> entryBounds = bounds.get(entry);
+            if (entryBounds.isPresent() && entryBounds.get().isEmpty()) {
+                spans[entry * 4] = -2;
+                continue;
+            }
+            if (!isIndexable(entryBounds)) {
+                spans[entry * 4] = -1;
+                ++unboundedCount;
+                continue;
+            }
+            Bounds b = entryBounds.get();
+            int fromColumn = clamp((int) ((b.getMinimumX() - minimumX) / cellWidth), columns);
+            int toColumn = clamp((int) ((b.getMaximumX() - minimumX) / cellWidth), columns);
+            int fromRow = clamp((int) ((b.getMinimumY() - minimumY) / cellHeight), rows);
+            int toRow = clamp((int) ((b.getMaximumY() - minimumY) / cellHeight), rows);
+            if ((long) (toColumn - fromColumn + 1) * (toRow - fromRow + 1) > maximumCells) {
+                spans[entry * 4] = -1;
+                ++unboundedCount;
+                continue;
+            }
+            spans[entry * 4] = fromColumn;
+            spans[entry * 4 + 1] = toColumn;
+            spans[entry * 4 + 2] = fromRow;
+            spans[entry * 4 + 3] = toRow;
+            for (int row = fromRow; row <= toRow; ++row) {
+                for (int column = fromColumn; column <= toColumn; ++column) {
+                    ++cellOffsets[row * columns + column + 1];
+                }
+            }
+        }
+        for (int cell = 0; cell < cellCount; ++cell) {
+            cellOffsets[cell + 1] += cellOffsets[cell];
+        }
+        int[] cursors = Arrays.copyOf(cellOffsets, cellCount);
+        int[] cellEntries = new int[cellOffsets[cellCount]];
+        int[] unbounded = new int[unboundedCount];
+        int unboundedSize = 0;
+        for (int entry = 0; entry < size; ++entry) {
+            int fromColumn = spans[entry * 4];
+            if (fromColumn == -2) {
+                continue;
+            }
+            if (fromColumn == -1) {
+                unbounded[unboundedSize++] = entry;
+                continue;
+            }
+            for (int row = spans[entry * 4 + 2]; row <= spans[entry * 4 + 3]; ++row) {
+                for (int column = fromColumn; column <= spans[entry * 4 + 1]; ++column) {
+                    cellEntries[cursors[row * columns + column]++] = entry;
+                }
+            }
+        }
+        return new SpatialGrid(minimumX, minimumY, cellWidth, cellHeight, columns, rows, cellOffsets, cellEntries, unbounded);
+    }
+
+    /**
+     * Finds the entries whose bounds may contain the point, in ascending entry order.
+     *
+     * @param point the point
+     * @return the candidate entries
+     */
+    IntStream getCandidates(Point point) {
+        int cell = getCell(point);
+        if (cell < 0) {
+            return Arrays.stream(unbounded);
+        }
+        int start = cellOffsets[cell];
+        int end = cellOffsets[cell + 1];
+        if (unbounded.length == 0) {
+            return Arrays.stream(cellEntries, start, end);
+        }
+        if (start == end) {
+            return Arrays.stream(unbounded);
+        }
+        //merge the cell entries with the unbounded entries, both of which are already sorted
+        int[] candidates = new int[end - start + unbounded.length];
+        int i = start;
+        int j = 0;
+        int k = 0;
+        while (i < end && j < unbounded.length) {
+            candidates[k++] = cellEntries[i] < unbounded[j] ? cellEntries[i++] : unbounded[j++];
+        }
+        while (i < end) {
+            candidates[k++] = cellEntries[i++];
+        }
+        while (j < unbounded.length) {
+            candidates[k++] = unbounded[j++];
+        }
+        return Arrays.stream(candidates);
+    }
+
+    private int getCell(Point point) {
+        double x = (point.getX() - minimumX) / cellWidth;
+        double y = (point.getY() - minimumY) / cellHeight;
+        //points on the far edge of the extent still belong to the last column or row
+        if (!(x >= 0 && x <= columns && y >= 0 && y <= rows)) {
+            return -1;
+        }
+        return clamp((int) y, rows) * columns + clamp((int) x, columns);
+    }
+
+    private static boolean isIndexable(Optional<Bounds> bounds) {
+        if (!bounds.isPresent()) {
+            return false;
+        }
+        Bounds b = bounds.get();
+        return !b.isEmpty() && Double.isFinite(b.getMinimumX()) && Double.isFinite(b.getMinimumY())
+                && Double.isFinite(b.getMaximumX()) && Double.isFinite(b.getMaximumY());
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+}
@@ -0,0 +1,27 @@
+package io.navigation;
+
+import org.junit.Test;
+
+/**
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public class AllPairsTest {
+    @Test
+    public void findRouteMatchesDijkstra() {
+        for (long seed = 0; seed < 20; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 40, 3, 10);
+            TestNetworks.assertSameRoutes(networkGraph, RouteFinderFactory.dijkstra().create(networkGraph),
+                    RouteFinderFactory.allPairs().create(networkGraph));
+        }
+    }
+
+    @Test
+    public void findRouteMatchesDijkstraOnSparseNetworks() {
+        for (long seed = 0; seed < 50; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 7, 1, 4);
+            TestNetworks.assertSameRoutes(networkGraph, RouteFinderFactory.dijkstra().create(networkGraph),
+                    RouteFinderFactory.allPairs().create(networkGraph));
+        }
+    }
+}
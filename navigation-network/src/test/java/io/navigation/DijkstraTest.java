@@ -0,0 +1,71 @@
+package io.navigation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public class DijkstraTest {
+    @Test
+    public void findRouteMatchesBruteForce() {
+        for (long seed = 0; seed < 200; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 7, 2, 4);
+            RouteFinder routeFinder = RouteFinderFactory.dijkstra().create(networkGraph);
+            for (Station station : networkGraph.getStations()) {
+                for (Stop stop : networkGraph.getStops()) {
+                    double fare = TestNetworks.bruteForceFare(networkGraph, station, stop);
+                    TestNetworks.assertRoute(networkGraph, station, stop, fare, routeFinder.findRoute(station, stop));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findRoutesMatchesBruteForce() {
+        for (long seed = 0; seed < 50; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 7, 2, 4);
+            RouteFinder routeFinder = RouteFinderFactory.dijkstra().create(networkGraph);
+            for (Station station : networkGraph.getStations()) {
+                Map<String, Route> routes = routeFinder.findRoutes(station, networkGraph.getStops())
+                        .collect(Collectors.toMap(Route::getStop, Function.identity()));
+                for (Stop stop : networkGraph.getStops()) {
+                    double fare = TestNetworks.bruteForceFare(networkGraph, station, stop);
+                    TestNetworks.assertRoute(networkGraph, station, stop, fare, Optional.ofNullable(routes.get(stop.getId())));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelConnectionsUseTheCheapestFare() {
+        Station origin = Station.of("origin",
+                Arrays.asList(RouteOption.of("expensive", "transfer", 5), RouteOption.of("cheap", "transfer", 2)),
+                Collections.singleton(RouteOption.of("direct", "stop", 10)));
+        Station transfer = Station.of("transfer", Collections.emptySet(), Collections.singleton(RouteOption.of("final", "stop", 1)));
+        Stop stop = Stop.of("stop");
+        RouteFinder routeFinder = RouteFinderFactory.dijkstra().create(NetworkGraph.of(Arrays.asList(origin, transfer), Collections.singleton(stop)));
+        Route route = routeFinder.findRoute(origin, stop).orElseThrow(AssertionError::new);
+        assertEquals(3, route.getRouteInfo().getFare(), 0);
+        assertEquals(Collections.singletonList("transfer"), route.getConnections());
+    }
+
+    @Test
+    public void unreachableStopHasNoRoute() {
+        Station origin = Station.of("origin", Collections.emptySet(), Collections.singleton(RouteOption.of("direct", "stop", 1)));
+        Stop unreachable = Stop.of("unreachable");
+        RouteFinder routeFinder = RouteFinderFactory.dijkstra().create(NetworkGraph.of(Collections.singleton(origin),
+                Arrays.asList(Stop.of("stop"), unreachable)));
+        assertFalse(routeFinder.findRoute(origin, unreachable).isPresent());
+    }
+}
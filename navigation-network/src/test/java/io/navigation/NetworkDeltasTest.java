@@ -0,0 +1,117 @@
+package io.navigation;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public class NetworkDeltasTest {
+    private static final List<RouteFinderFactory> ROUTE_FINDER_FACTORIES = Arrays.asList(
+            RouteFinderFactory.dijkstra(),
+            RouteFinderFactory.allPairs(),
+            RouteFinderFactory.contractionHierarchy(),
+            RouteFinderFactory.landmarks(),
+            RouteFinderFactory.cached(RouteFinderFactory.dijkstra(), 1, TimeUnit.HOURS),
+            RouteFinderFactory.minimumFare(RouteFinderFactory.allPairs(), RouteFinderFactory.landmarks()));
+
+    @Test
+    public void fareIncreaseMatchesRebuild() {
+        for (long seed = 0; seed < 10; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 30, 2, 8);
+            RouteOption connection = firstConnection(networkGraph, "station-1");
+            assertUpdate(networkGraph, NetworkChange.updateFare("station-1", connection.getId(), connection.getFare() * 3),
+                    rebuild(networkGraph, "station-1", station -> replaceConnection(station, connection,
+                            RouteOption.of(connection.getId(), connection.getDestination(), connection.getFare() * 3))));
+        }
+    }
+
+    @Test
+    public void fareDecreaseMatchesRebuild() {
+        for (long seed = 0; seed < 10; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 30, 2, 8);
+            RouteOption connection = firstConnection(networkGraph, "station-1");
+            assertUpdate(networkGraph, NetworkChange.updateFare("station-1", connection.getId(), connection.getFare() / 3),
+                    rebuild(networkGraph, "station-1", station -> replaceConnection(station, connection,
+                            RouteOption.of(connection.getId(), connection.getDestination(), connection.getFare() / 3))));
+        }
+    }
+
+    @Test
+    public void connectionAdditionMatchesRebuild() {
+        for (long seed = 0; seed < 10; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 30, 2, 8);
+            //nothing else connects to the first station, so its stops become reachable
+            RouteOption connection = RouteOption.of("added", "station-0", 1);
+            assertUpdate(networkGraph, NetworkChange.addConnection("station-1", connection),
+                    rebuild(networkGraph, "station-1", station -> replaceConnection(station, null, connection)));
+        }
+    }
+
+    @Test
+    public void connectionRemovalMatchesRebuild() {
+        for (long seed = 0; seed < 10; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 30, 2, 8);
+            RouteOption connection = firstConnection(networkGraph, "station-1");
+            assertUpdate(networkGraph, NetworkChange.removeRouteOption("station-1", connection.getId()),
+                    rebuild(networkGraph, "station-1", station -> replaceConnection(station, connection, null)));
+        }
+    }
+
+    @Test
+    public void destinationRemovalMatchesRebuild() {
+        for (long seed = 0; seed < 10; seed++) {
+            NetworkGraph networkGraph = TestNetworks.random(seed, 30, 2, 8);
+            RouteOption destination = getStation(networkGraph, "station-1").getDestinations().iterator().next();
+            assertUpdate(networkGraph, NetworkChange.removeRouteOption("station-1", destination.getId()),
+                    rebuild(networkGraph, "station-1", station -> Station.of(station.getId(), station.getConnections(),
+                            Collections.emptySet())));
+        }
+    }
+
+    private static void assertUpdate(NetworkGraph networkGraph, NetworkChange change, NetworkGraph rebuiltNetworkGraph) {
+        NetworkGraph updatedNetworkGraph = networkGraph.apply(NetworkDelta.of(change));
+        assertEquals(rebuiltNetworkGraph, updatedNetworkGraph);
+        for (RouteFinderFactory routeFinderFactory : ROUTE_FINDER_FACTORIES) {
+            RouteFinder routeFinder = routeFinderFactory.create(networkGraph);
+            //look up every route first, so anything cached is carried over by the update
+            TestNetworks.assertSameRoutes(networkGraph, RouteFinderFactory.dijkstra().create(networkGraph), routeFinder);
+            TestNetworks.assertSameRoutes(updatedNetworkGraph, routeFinderFactory.create(rebuiltNetworkGraph),
+                    routeFinderFactory.update(routeFinder, networkGraph, updatedNetworkGraph));
+        }
+    }
+
+    private static NetworkGraph rebuild(NetworkGraph networkGraph, String id, UnaryOperator<Station> update) {
+        List<Station> stations = networkGraph.getStations().stream()
+                .map(station -> station.getId().equals(id) ? update.apply(station) : station)
+                .collect(Collectors.toList());
+        return NetworkGraph.of(stations, networkGraph.getStops());
+    }
+
+    private static Station replaceConnection(Station station, RouteOption connection, RouteOption replacement) {
+        List<RouteOption> connections = new ArrayList<>(station.getConnections());
+        connections.remove(connection);
+        if (replacement != null) {
+            connections.add(replacement);
+        }
+        return Station.of(station.getId(), connections, station.getDestinations());
+    }
+
+    private static RouteOption firstConnection(NetworkGraph networkGraph, String id) {
+        return getStation(networkGraph, id).getConnections().iterator().next();
+    }
+
+    private static Station getStation(NetworkGraph networkGraph, String id) {
+        return networkGraph.getStations().stream()
+                .filter(station -> station.getId().equals(id))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,94 @@
+package io.navigation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Ian Caffey
+ * @since 1.0
+ */
+public class NetworkSnapshotTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripPreservesNetworkGraph() throws IOException {
+        NetworkGraph networkGraph = TestNetworks.random(1, 30, 2, 8);
+        Path file = folder.newFile().toPath();
+        NetworkSnapshot.write(networkGraph, file);
+        NetworkSnapshot networkSnapshot = NetworkSnapshot.open(file);
+        NetworkGraph snapshotNetworkGraph = networkSnapshot.getNetworkGraph();
+        assertEquals(new ArrayList<>(networkGraph.getStations()), new ArrayList<>(snapshotNetworkGraph.getStations()));
+        assertEquals(new ArrayList<>(networkGraph.getStops()), new ArrayList<>(snapshotNetworkGraph.getStops()));
+        assertFalse(networkSnapshot.getNetworkCoverage().isPresent());
+        TestNetworks.assertSameRoutes(snapshotNetworkGraph, RouteFinderFactory.dijkstra().create(networkGraph),
+                RouteFinderFactory.dijkstra().create(snapshotNetworkGraph));
+    }
+
+    @Test
+    public void roundTripPreservesNetworkCoverage() throws IOException {
+        NetworkGraph networkGraph = TestNetworks.random(2, 30, 2, 8);
+        Random random = new Random(2);
+        NetworkCoverage.Builder<Point> networkCoverage = NetworkCoverage.builder();
+        networkGraph.getStations().forEach(station -> networkCoverage.putStationServiceArea(station.getId(), serviceArea(random)));
+        networkGraph.getStops().forEach(stop -> networkCoverage.putStopServiceArea(stop.getId(), serviceArea(random)));
+        NetworkCoverage<Point> expectedNetworkCoverage = networkCoverage.build();
+        Path file = folder.newFile().toPath();
+        NetworkSnapshot.write(networkGraph, expectedNetworkCoverage, file);
+        NetworkCoverage<Point> snapshotNetworkCoverage = NetworkSnapshot.open(file).getNetworkCoverage().orElseThrow(AssertionError::new);
+        assertEquals(expectedNetworkCoverage.getStationServiceAreas(), snapshotNetworkCoverage.getStationServiceAreas());
+        assertEquals(expectedNetworkCoverage.getStopServiceAreas(), snapshotNetworkCoverage.getStopServiceAreas());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openRejectsCorruptHeader() throws IOException {
+        Path file = folder.newFile().toPath();
+        NetworkSnapshot.write(TestNetworks.random(3, 30, 2, 8), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[12] ^= 1;
+        Files.write(file, bytes);
+        NetworkSnapshot.open(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openRejectsTruncatedFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        NetworkSnapshot.write(TestNetworks.random(4, 30, 2, 8), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        NetworkSnapshot.open(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openRejectsOtherFiles() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[1024]);
+        NetworkSnapshot.open(file);
+    }
+
+    private static ServiceArea<Point> serviceArea(Random random) {
+        double x = random.nextDouble() * 100;
+        double y = random.nextDouble() * 100;
+        switch (random.nextInt(4)) {
+            case 0:
+                return ServiceArea.circle(Point.of(x, y), random.nextDouble() * 10);
+            case 1:
+                return ServiceArea.box(Bounds.of(x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10));
+            case 2:
+                return ServiceArea.polygon(Arrays.asList(Point.of(x, y), Point.of(x + 10, y + 2), Point.of(x + 4, y + 8)));
+            default:
+                return ServiceArea.outside(ServiceArea.<Point>circle(Point.of(x, y), 5));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.navigation;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Builds small random network graphs for route finder tests, and checks routes against them.
+ *
+ * @author Ian Caffey
+ * @since 1.0
+ */
+final class TestNetworks {
+    private static final double TOLERANCE = 1e-9;
+
+    private TestNetworks() {
+    }
+
+    /**
+     * Creates a random network graph, including parallel connections between the same stations, a station which no
+     * other station connects to and a stop which is not the destination of any station.
+     *
+     * @param seed            the random seed
+     * @param stationCount    the number of stations
+     * @param connectionCount the number of connections from each station
+     * @param stopCount       the number of stops
+     * @return the network graph
+     */
+    static NetworkGraph random(long seed, int stationCount, int connectionCount, int stopCount) {
+        Random random = new Random(seed);
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            List<RouteOption> connections = new ArrayList<>();
+            for (int j = 0; j < connectionCount; j++) {
+                //nothing connects to the first station
+                String destination = "station-" + (1 + random.nextInt(stationCount - 1));
+                connections.add(RouteOption.of("connection-" + i + "-" + j, destination, 1 + random.nextInt(9)));
+                if (random.nextInt(3) == 0) {
+                    connections.add(RouteOption.of("parallel-" + i + "-" + j, destination, 1 + random.nextInt(9)));
+                }
+            }
+            //the last stop is never a destination
+            List<RouteOption> destinations = Collections.singletonList(
+                    RouteOption.of("destination-" + i, "stop-" + random.nextInt(stopCount - 1), random.nextInt(5)));
+            stations.add(Station.of("station-" + i, connections, destinations));
+        }
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < stopCount; i++) {
+            stops.add(Stop.of("stop-" + i));
+        }
+        return NetworkGraph.of(stations, stops);
+    }
+
+    /**
+     * Finds the minimum fare from the station to the stop by enumerating every path without a repeated station.
+     *
+     * @param networkGraph the network graph
+     * @param station      the station
+     * @param stop         the stop
+     * @return the minimum fare, or {@link Double#POSITIVE_INFINITY} if the stop is unreachable
+     */
+    static double bruteForceFare(NetworkGraph networkGraph, Station station, Stop stop) {
+        Map<String, Station> stations = new HashMap<>();
+        networkGraph.getStations().forEach(s -> stations.put(s.getId(), s));
+        return bruteForceFare(stations, station, stop.getId(), new HashSet<>(), 0);
+    }
+
+    private static double bruteForceFare(Map<String, Station> stations, Station station, String stop, Set<String> visited, double fare) {
+        visited.add(station.getId());
+        double minimumFare = Double.POSITIVE_INFINITY;
+        for (RouteOption destination : station.getDestinations()) {
+            if (destination.getDestination().equals(stop)) {
+                minimumFare = Math.min(minimumFare, fare + destination.getFare());
+            }
+        }
+        for (RouteOption connection : station.getConnections()) {
+            if (!visited.contains(connection.getDestination())) {
+                minimumFare = Math.min(minimumFare, bruteForceFare(stations, stations.get(connection.getDestination()), stop,
+                        visited, fare + connection.getFare()));
+            }
+        }
+        visited.remove(station.getId());
+        return minimumFare;
+    }
+
+    /**
+     * Asserts the route from the station to the stop has the expected fare, and that following its connections through
+     * the network graph costs that fare.
+     *
+     * @param networkGraph the network graph
+     * @param station      the station
+     * @param stop         the stop
+     * @param expectedFare the expected fare, or {@link Double#POSITIVE_INFINITY} if there should be no route
+     * @param route        the route
+     */
+    static void assertRoute(NetworkGraph networkGraph, Station station, Stop stop, double expectedFare, Optional<Route> route) {
+        String pair = station.getId() + " -> " + stop.getId();
+        if (expectedFare == Double.POSITIVE_INFINITY) {
+            assertFalse(pair, route.isPresent());
+            return;
+        }
+        assertTrue(pair, route.isPresent());
+        assertEquals(pair, station.getId(), route.get().getStation());
+        assertEquals(pair, stop.getId(), route.get().getStop());
+        assertEquals(pair, expectedFare, route.get().getRouteInfo().getFare(), TOLERANCE);
+        assertEquals(pair, expectedFare, pathFare(networkGraph, route.get()), TOLERANCE);
+    }
+
+    /**
+     * Asserts the route finder finds a route with the same fare as the expected route finder for every station and
+     * stop in the network graph, through both {@link RouteFinder#findRoute(Station, Stop)} and
+     * {@link RouteFinder#findRoutes(Station, Set)}.
+     *
+     * @param networkGraph        the network graph
+     * @param expectedRouteFinder the route finder to agree with
+     * @param routeFinder         the route finder
+     */
+    static void assertSameRoutes(NetworkGraph networkGraph, RouteFinder expectedRouteFinder, RouteFinder routeFinder) {
+        for (Station station : networkGraph.getStations()) {
+            Map<String, Route> routes = new HashMap<>();
+            routeFinder.findRoutes(station, networkGraph.getStops()).forEach(route -> routes.put(route.getStop(), route));
+            for (Stop stop : networkGraph.getStops()) {
+                double fare = expectedRouteFinder.findRoute(station, stop)
+                        .map(route -> route.getRouteInfo().getFare())
+                        .orElse(Double.POSITIVE_INFINITY);
+                assertRoute(networkGraph, station, stop, fare, routeFinder.findRoute(station, stop));
+                assertRoute(networkGraph, station, stop, fare, Optional.ofNullable(routes.get(stop.getId())));
+            }
+        }
+    }
+
+    private static double pathFare(NetworkGraph networkGraph, Route route) {
+        Map<String, Station> stations = new HashMap<>();
+        networkGraph.getStations().forEach(s -> stations.put(s.getId(), s));
+        Station station = stations.get(route.getStation());
+        double fare = 0;
+        for (String connection : route.getConnections()) {
+            fare += minimumFare(station.getConnections(), connection);
+            station = stations.get(connection);
+        }
+        return fare + minimumFare(station.getDestinations(), route.getStop());
+    }
+
+    private static double minimumFare(Set<RouteOption> routeOptions, String destination) {
+        return routeOptions.stream()
+                .filter(routeOption -> routeOption.getDestination().equals(destination))
+                .mapToDouble(RouteOption::getFare)
+                .min()
+                .orElse(Double.POSITIVE_INFINITY);
+    }
+}